@@ -0,0 +1,44 @@
+package coo.base.model;
+
+import java.io.Serializable;
+
+/**
+ * 分面统计项。
+ */
+public class Facet implements Serializable {
+	private static final long serialVersionUID = 2264934735069468395L;
+	/** 字段值 */
+	private String value;
+	/** 显示文本 */
+	private String text;
+	/** 命中记录数 */
+	private Integer count;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param value
+	 *            字段值
+	 * @param text
+	 *            显示文本
+	 * @param count
+	 *            命中记录数
+	 */
+	public Facet(String value, String text, Integer count) {
+		this.value = value;
+		this.text = text;
+		this.count = count;
+	}
+
+	public String getValue() {
+		return value;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public Integer getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,63 @@
+package coo.base.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 带分面统计的分页对象。<br/>
+ * 除当前页记录外，还包含各分面字段在全部命中记录上按字段值统计的记录数。
+ * 
+ * @param <T>
+ *            分页对象中包含内容的对象类型
+ */
+public class FacetPage<T> extends Page<T> {
+	private static final long serialVersionUID = 7810463323504417842L;
+	/** 各分面字段的统计项 */
+	private Map<String, List<Facet>> facets = new LinkedHashMap<String, List<Facet>>();
+
+	/**
+	 * 初始化一个新的分页对象，该构造方法通常用于生成一个空的分页对象。
+	 * 
+	 * @param pageSize
+	 *            每页记录数
+	 */
+	public FacetPage(Integer pageSize) {
+		super(pageSize);
+	}
+
+	/**
+	 * 通过指定记录总数、当前页数、每页记录数来构造一个分页对象。
+	 * 
+	 * @param recordCount
+	 *            记录总数
+	 * @param pageNo
+	 *            当前页数
+	 * @param pageSize
+	 *            每页记录数
+	 */
+	public FacetPage(Integer recordCount, Integer pageNo, Integer pageSize) {
+		super(recordCount, pageNo, pageSize);
+	}
+
+	/**
+	 * 获取指定字段的分面统计项。
+	 * 
+	 * @param fieldName
+	 *            字段名
+	 * @return 返回指定字段按命中记录数倒序排列的分面统计项，没有统计该字段时返回空列表。
+	 */
+	public List<Facet> getFacets(String fieldName) {
+		List<Facet> fieldFacets = facets.get(fieldName);
+		return fieldFacets == null ? new ArrayList<Facet>() : fieldFacets;
+	}
+
+	public Map<String, List<Facet>> getFacets() {
+		return facets;
+	}
+
+	public void setFacets(Map<String, List<Facet>> facets) {
+		this.facets = facets;
+	}
+}
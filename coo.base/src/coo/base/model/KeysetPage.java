@@ -0,0 +1,42 @@
+package coo.base.model;
+
+/**
+ * 键集分页对象。<br/>
+ * 不统计总记录数，通过上一页/下一页游标在有序键上定位，翻页的代价与页码深度无关。
+ * 
+ * @param <T>
+ *            分页对象中包含内容的对象类型
+ */
+public class KeysetPage<T> extends Page<T> {
+	private static final long serialVersionUID = -4327195386250470571L;
+	/** 上一页游标 */
+	private String previousCursor;
+	/** 下一页游标 */
+	private String nextCursor;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param pageSize
+	 *            每页记录数
+	 */
+	public KeysetPage(Integer pageSize) {
+		super(pageSize);
+	}
+
+	public String getPreviousCursor() {
+		return previousCursor;
+	}
+
+	public void setPreviousCursor(String previousCursor) {
+		this.previousCursor = previousCursor;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+}
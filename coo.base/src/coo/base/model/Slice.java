@@ -0,0 +1,105 @@
+package coo.base.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分片对象。<br/>
+ * 与分页对象不同，分片对象不统计总记录数，只知道是否存在下一页，适用于“加载更多”、无限滚动等场景。
+ * 
+ * @param <T>
+ *            分片对象中包含内容的对象类型
+ */
+public class Slice<T> implements Serializable {
+	private static final long serialVersionUID = -1772035871340616382L;
+	/** 是否第一页 */
+	private Boolean first = true;
+	/** 是否最后一页 */
+	private Boolean last = true;
+	/** 下一页页码 */
+	private Integer next = 1;
+	/** 上一页页码 */
+	private Integer previous = 1;
+	/** 每页记录数 */
+	private Integer size;
+	/** 当前页码 */
+	private Integer number = 1;
+	/** 分片记录集合 */
+	private List<T> contents = new ArrayList<T>();
+
+	/**
+	 * 通过当前页数、每页记录数、是否存在下一页来构造一个分片对象。
+	 * 
+	 * @param pageNo
+	 *            当前页数
+	 * @param pageSize
+	 *            每页记录数
+	 * @param hasNext
+	 *            是否存在下一页
+	 */
+	public Slice(Integer pageNo, Integer pageSize, Boolean hasNext) {
+		size = pageSize;
+		number = pageNo < 1 ? 1 : pageNo;
+		first = number <= 1;
+		previous = first ? number : number - 1;
+		last = !hasNext;
+		next = last ? number : number + 1;
+	}
+
+	public Boolean getFirst() {
+		return first;
+	}
+
+	public void setFirst(Boolean first) {
+		this.first = first;
+	}
+
+	public Boolean getLast() {
+		return last;
+	}
+
+	public void setLast(Boolean last) {
+		this.last = last;
+	}
+
+	public Integer getNext() {
+		return next;
+	}
+
+	public void setNext(Integer next) {
+		this.next = next;
+	}
+
+	public Integer getPrevious() {
+		return previous;
+	}
+
+	public void setPrevious(Integer previous) {
+		this.previous = previous;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public void setSize(Integer size) {
+		this.size = size;
+	}
+
+	public Integer getNumber() {
+		return number;
+	}
+
+	public void setNumber(Integer number) {
+		this.number = number;
+	}
+
+	public List<T> getContents() {
+		return contents;
+	}
+
+	public void setContents(List<T> contents) {
+		this.contents = contents;
+	}
+}
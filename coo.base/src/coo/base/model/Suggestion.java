@@ -0,0 +1,44 @@
+package coo.base.model;
+
+import java.io.Serializable;
+
+/**
+ * 输入提示项。
+ */
+public class Suggestion implements Serializable {
+	private static final long serialVersionUID = -3390875046317263155L;
+	/** 实体ID */
+	private Serializable id;
+	/** 提示文本 */
+	private String text;
+	/** 提示文本所在的字段 */
+	private String field;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param id
+	 *            实体ID
+	 * @param text
+	 *            提示文本
+	 * @param field
+	 *            提示文本所在的字段
+	 */
+	public Suggestion(Serializable id, String text, String field) {
+		this.id = id;
+		this.text = text;
+		this.field = field;
+	}
+
+	public Serializable getId() {
+		return id;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public String getField() {
+		return field;
+	}
+}
@@ -0,0 +1,20 @@
+package coo.base.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SliceTest {
+	@Test
+	public void testNavigation() {
+		Slice<String> slice = new Slice<String>(1, 20, true);
+		Assert.assertTrue(slice.getFirst());
+		Assert.assertFalse(slice.getLast());
+		Assert.assertEquals(2, slice.getNext().intValue());
+
+		slice = new Slice<String>(3, 20, false);
+		Assert.assertFalse(slice.getFirst());
+		Assert.assertTrue(slice.getLast());
+		Assert.assertEquals(2, slice.getPrevious().intValue());
+		Assert.assertEquals(3, slice.getNext().intValue());
+	}
+}
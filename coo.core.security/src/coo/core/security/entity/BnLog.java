@@ -9,6 +9,7 @@ import javax.persistence.Entity;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
+import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
 
 import org.dom4j.Document;
@@ -17,39 +18,46 @@ import org.dom4j.Element;
 import org.dom4j.io.SAXReader;
 import org.hibernate.proxy.HibernateProxy;
 import org.hibernate.search.annotations.Analyze;
-import org.hibernate.search.annotations.DateBridge;
 import org.hibernate.search.annotations.Field;
+import org.hibernate.search.annotations.FieldBridge;
+import org.hibernate.search.annotations.FullTextFilterDef;
 import org.hibernate.search.annotations.Indexed;
-import org.hibernate.search.annotations.Resolution;
+import org.hibernate.search.annotations.Store;
+import org.hibernate.search.filter.ShardSensitiveOnlyFilter;
 import org.hibernate.validator.constraints.NotEmpty;
 
 import coo.base.util.BeanUtils;
 import coo.base.util.DateUtils;
 import coo.base.util.StringUtils;
+import coo.core.hibernate.search.MonthShardingStrategy;
+import coo.core.hibernate.search.NGramBridge;
+import coo.core.hibernate.search.NumericDateBridge;
 import coo.core.model.UuidEntity;
 import coo.core.security.annotations.Log;
 import coo.core.security.model.LogData;
 
 /**
- * 业务日志。
+ * 业务日志。<br/>
+ * 日志列表展示的字段在索引中存储字段值，日志列表通过投影搜索直接从索引中获取，不访问数据库。<br/>
+ * 原数据和新数据只索引不存储，列表中只需要知道是否记录了业务数据，由dataLogged标记字段存储。
  */
 @Entity
 @Table(name = "Syst_BnLog")
 @Indexed
+@FullTextFilterDef(name = MonthShardingStrategy.FILTER_NAME, impl = ShardSensitiveOnlyFilter.class)
 public class BnLog extends UuidEntity {
 	/** 创建人 */
 	@NotEmpty
-	@Field(analyze = Analyze.NO)
+	@Field(analyze = Analyze.NO, store = Store.YES, bridge = @FieldBridge(impl = NGramBridge.class))
 	private String creator;
 	/** 创建时间 */
 	@NotNull
 	@Temporal(TemporalType.TIMESTAMP)
-	@Field(analyze = Analyze.NO)
-	@DateBridge(resolution = Resolution.MILLISECOND)
+	@Field(analyze = Analyze.NO, store = Store.YES, bridge = @FieldBridge(impl = NumericDateBridge.class))
 	private Date createDate;
 	/** 日志信息 */
 	@NotEmpty
-	@Field
+	@Field(store = Store.YES)
 	private String message;
 	/** 原数据 */
 	@Field
@@ -57,6 +65,9 @@ public class BnLog extends UuidEntity {
 	/** 新数据 */
 	@Field
 	private String newData;
+	/** 是否记录了业务数据，由投影搜索从索引中填充 */
+	@Transient
+	private Boolean dataLogged;
 
 	/**
 	 * 构造方法。
@@ -122,12 +133,25 @@ public class BnLog extends UuidEntity {
 		this.newData = getXml(newDataObject);
 	}
 
+	/**
+	 * 获取是否记录了业务数据的标记，在索引中存储用于投影搜索。
+	 * 
+	 * @return 如果记录了业务数据返回true，否则返回false。
+	 */
+	@Field(analyze = Analyze.NO, store = Store.YES)
+	public Boolean getDataLogged() {
+		return hasData();
+	}
+
 	/**
 	 * 判断是否记录了业务数据。
 	 * 
 	 * @return 如果记录了业务数据返回true，否则返回false。
 	 */
 	public Boolean hasData() {
+		if (dataLogged != null) {
+			return dataLogged;
+		}
 		return StringUtils.isNotEmpty(origData)
 				|| StringUtils.isNotEmpty(newData);
 	}
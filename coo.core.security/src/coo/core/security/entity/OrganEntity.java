@@ -15,6 +15,7 @@ import org.hibernate.search.annotations.Analyze;
 import org.hibernate.search.annotations.Field;
 import org.hibernate.validator.constraints.NotEmpty;
 
+import coo.core.hibernate.search.Suggestible;
 import coo.core.security.annotations.Log;
 
 /**
@@ -38,6 +39,7 @@ public abstract class OrganEntity<O extends OrganEntity<O, U, A>, U extends User
 	/** 名称 */
 	@NotEmpty
 	@Field
+	@Suggestible
 	@Log(text = "名称")
 	private String name;
 	/** 排序 */
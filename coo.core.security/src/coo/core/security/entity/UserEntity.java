@@ -14,8 +14,12 @@ import javax.validation.constraints.NotNull;
 
 import org.hibernate.search.annotations.Analyze;
 import org.hibernate.search.annotations.Field;
+import org.hibernate.search.annotations.FieldBridge;
 import org.hibernate.validator.constraints.NotEmpty;
 
+import coo.core.hibernate.dao.QueryCacheable;
+import coo.core.hibernate.search.NGramBridge;
+import coo.core.hibernate.search.Suggestible;
 import coo.core.security.annotations.Log;
 
 /**
@@ -29,16 +33,19 @@ import coo.core.security.annotations.Log;
  *            用户设置类型
  */
 @MappedSuperclass
+@QueryCacheable
 public abstract class UserEntity<U extends UserEntity<U, A, S>, A extends ActorEntity<?, ?, ?>, S extends UserSettingsEntity<A>>
 		extends ResourceEntity<U> {
 	/** 姓名 */
 	@NotEmpty
 	@Field
+	@Suggestible
 	@Log(text = "姓名")
 	private String name;
 	/** 用户名 */
 	@NotEmpty
-	@Field(analyze = Analyze.NO)
+	@Field(analyze = Analyze.NO, bridge = @FieldBridge(impl = NGramBridge.class))
+	@Suggestible
 	@Log(text = "用户名")
 	private String username;
 	/** 密码 */
@@ -6,10 +6,8 @@ import javax.annotation.Resource;
 
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause.Occur;
-import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.WildcardQuery;
 import org.apache.shiro.SecurityUtils;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationToken;
@@ -235,10 +233,8 @@ public abstract class AbstractSecurityService<O extends OrganEntity<O, U, A>, U
 		criteria.addSortDesc("createDate", SortField.LONG);
 
 		// 将系统管理员从搜索的用户结果中排除
-		BooleanQuery bq = new BooleanQuery();
-		bq.add(new TermQuery(new Term("id", AdminIds.USER_ID)), Occur.MUST_NOT);
-		bq.add(new WildcardQuery(new Term("id", "*")), Occur.MUST);
-		criteria.setLuceneQuery(bq, Occur.MUST);
+		criteria.setLuceneQuery(new TermQuery(new Term("id", AdminIds.USER_ID)),
+				Occur.MUST_NOT);
 
 		return userDao.searchPage(criteria, searchModel.getPageNo(),
 				searchModel.getPageSize());
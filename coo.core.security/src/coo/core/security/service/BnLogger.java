@@ -1,6 +1,8 @@
 package coo.core.security.service;
 
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.annotation.Resource;
 
@@ -11,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 import coo.base.model.Page;
 import coo.core.hibernate.dao.Dao;
 import coo.core.hibernate.search.FullTextCriteria;
+import coo.core.hibernate.search.MonthShardingStrategy;
 import coo.core.model.SearchModel;
 import coo.core.security.entity.BnLog;
 import coo.core.security.entity.UserEntity;
@@ -65,7 +68,8 @@ public class BnLogger {
 	}
 
 	/**
-	 * 分页全文搜索日志记录。
+	 * 分页全文搜索日志记录。<br/>
+	 * 日志记录直接由索引中存储的字段值构造，不访问数据库。
 	 * 
 	 * @param searchModel
 	 *            搜索条件
@@ -73,11 +77,37 @@ public class BnLogger {
 	 */
 	@Transactional(readOnly = true)
 	public Page<BnLog> searchLog(SearchModel searchModel) {
+		return searchLog(searchModel, null, null);
+	}
+
+	/**
+	 * 按时间段分页全文搜索日志记录。<br/>
+	 * 日志索引按月分片时只搜索时间段覆盖的月份所在的分片。
+	 * 
+	 * @param searchModel
+	 *            搜索条件
+	 * @param startDate
+	 *            起始时间，为null时不限
+	 * @param endDate
+	 *            截止时间，为null时不限
+	 * @return 返回符合条件的日志分页对象。
+	 */
+	@Transactional(readOnly = true)
+	public Page<BnLog> searchLog(SearchModel searchModel, Date startDate,
+			Date endDate) {
 		FullTextCriteria criteria = bnLogDao.createFullTextCriteria();
 		criteria.addSortDesc("createDate", SortField.LONG);
 		criteria.setKeyword(searchModel.getKeyword());
-		return bnLogDao.searchPage(criteria, searchModel.getPageNo(),
-				searchModel.getPageSize());
+		if (startDate != null || endDate != null) {
+			criteria.addRangeFilter("createDate", startDate, endDate);
+			Map<String, Object> parameters = new HashMap<String, Object>();
+			parameters.put(MonthShardingStrategy.FROM, startDate);
+			parameters.put(MonthShardingStrategy.TO, endDate);
+			criteria.enableFullTextFilter(MonthShardingStrategy.FILTER_NAME,
+					parameters);
+		}
+		return bnLogDao.searchProjectionPage(criteria,
+				searchModel.getPageNo(), searchModel.getPageSize());
 	}
 
 	/**
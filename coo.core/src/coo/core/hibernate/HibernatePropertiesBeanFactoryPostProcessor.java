@@ -0,0 +1,71 @@
+package coo.core.hibernate;
+
+import java.util.Properties;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.ManagedProperties;
+import org.springframework.core.Ordered;
+
+/**
+ * 向sessionFactory追加Hibernate配置属性的BeanFactoryPostProcessor。<br/>
+ * 用于各组件在自己的配置文件中声明只与本组件相关的Hibernate配置（如本组件实体类的全文索引配置），不需要修改coo.core.xml中的sessionFactory。<br/>
+ * 属性追加到sessionFactory（或其父定义中）已声明的hibernateProperties中，在DaoRegister等获取sessionFactory的BeanFactoryPostProcessor之前执行。
+ * enabled为false时不追加任何属性。
+ */
+public class HibernatePropertiesBeanFactoryPostProcessor implements
+		BeanFactoryPostProcessor, Ordered {
+	/** 是否启用 */
+	private Boolean enabled = true;
+	/** 追加的Hibernate配置属性 */
+	private Properties hibernateProperties = new Properties();
+
+	@Override
+	public void postProcessBeanFactory(
+			ConfigurableListableBeanFactory beanFactory) {
+		if (!enabled || !beanFactory.containsBeanDefinition("sessionFactory")) {
+			return;
+		}
+		BeanDefinition definition = beanFactory
+				.getBeanDefinition("sessionFactory");
+		BeanDefinition target = definition;
+		while (target != null
+				&& !target.getPropertyValues().contains("hibernateProperties")) {
+			String parentName = target.getParentName();
+			target = parentName == null ? null : beanFactory
+					.getBeanDefinition(parentName);
+		}
+		if (target == null) {
+			ManagedProperties properties = new ManagedProperties();
+			properties.putAll(hibernateProperties);
+			definition.getPropertyValues().add("hibernateProperties",
+					properties);
+		} else {
+			Properties properties = (Properties) target.getPropertyValues()
+					.getPropertyValue("hibernateProperties").getValue();
+			properties.putAll(hibernateProperties);
+		}
+	}
+
+	@Override
+	public int getOrder() {
+		return 0;
+	}
+
+	public Boolean getEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(Boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Properties getHibernateProperties() {
+		return hibernateProperties;
+	}
+
+	public void setHibernateProperties(Properties hibernateProperties) {
+		this.hibernateProperties = hibernateProperties;
+	}
+}
@@ -0,0 +1,16 @@
+package coo.core.hibernate.dao;
+
+/**
+ * 批量写操作监听器。<br/>
+ * Dao的局部更新、批量插入、批量删除等操作不会触发Hibernate事件，操作完成后以及事务结束后通知容器中所有的监听器，
+ * 依赖Hibernate事件维护的缓存通过实现该接口使相应实体类的缓存失效。
+ */
+public interface BulkWriteListener {
+	/**
+	 * 实体类发生了批量写操作。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 */
+	void onBulkWrite(Class<?> entityClass);
+}
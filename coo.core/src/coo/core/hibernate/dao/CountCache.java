@@ -0,0 +1,136 @@
+package coo.core.hibernate.dao;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 分页查询总记录数缓存组件。<br/>
+ * 以实体类和规范化后的查询语句（含参数）作为键缓存count查询结果，缓存项在超过存活时间或该实体类发生新增、更新、删除后失效。<br/>
+ * 只对Dao的findCachedPage方法生效，且只缓存仅涉及该实体类的表的查询。
+ */
+public class CountCache extends EntityWriteAwareCache {
+	private static final long serialVersionUID = 6519483407915238617L;
+	/** 缓存存活时间（秒），小于等于0时不缓存 */
+	private Integer ttl = 60;
+	/** 每个实体类最多缓存的查询数，超过时清空该实体类的缓存 */
+	private Integer maxSize = 1000;
+	private ConcurrentMap<Class<?>, ConcurrentMap<String, CountEntry>> caches = new ConcurrentHashMap<Class<?>, ConcurrentMap<String, CountEntry>>();
+
+	/**
+	 * 获取缓存的总记录数。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param query
+	 *            规范化后的查询语句
+	 * @return 返回缓存的总记录数，如果没有缓存或已过期返回null。
+	 */
+	public Integer get(Class<?> entityClass, String query) {
+		if (ttl <= 0) {
+			return null;
+		}
+		ConcurrentMap<String, CountEntry> cache = caches.get(entityClass);
+		if (cache == null) {
+			return null;
+		}
+		CountEntry entry = cache.get(query);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isExpired()) {
+			cache.remove(query);
+			return null;
+		}
+		return entry.count;
+	}
+
+	/**
+	 * 缓存总记录数。查询期间实体类的缓存失效过或当前事务路由到从库时不缓存。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param query
+	 *            规范化后的查询语句
+	 * @param count
+	 *            总记录数
+	 * @param generation
+	 *            查询前通过getGeneration获取的失效代数
+	 */
+	public void put(Class<?> entityClass, String query, Integer count,
+			Long generation) {
+		if (ttl <= 0 || !isPutAllowed(entityClass, generation)) {
+			return;
+		}
+		ConcurrentMap<String, CountEntry> cache = caches.get(entityClass);
+		if (cache == null) {
+			caches.putIfAbsent(entityClass,
+					new ConcurrentHashMap<String, CountEntry>());
+			cache = caches.get(entityClass);
+		}
+		if (cache.size() >= maxSize) {
+			cache.clear();
+		}
+		CountEntry entry = new CountEntry(count, System.currentTimeMillis()
+				+ ttl * 1000L);
+		cache.put(query, entry);
+		// 写入期间发生失效时移除刚写入的缓存项
+		if (!generation.equals(getGeneration(entityClass))) {
+			cache.remove(query, entry);
+		}
+	}
+
+	@Override
+	public void invalidate(Class<?> entityClass) {
+		nextGeneration(entityClass);
+		ConcurrentMap<String, CountEntry> cache = caches.get(entityClass);
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	public Integer getTtl() {
+		return ttl;
+	}
+
+	public void setTtl(Integer ttl) {
+		this.ttl = ttl;
+	}
+
+	public Integer getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(Integer maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * 总记录数缓存项。
+	 */
+	private static class CountEntry {
+		private Integer count;
+		private Long expireTime;
+
+		/**
+		 * 构造方法。
+		 * 
+		 * @param count
+		 *            总记录数
+		 * @param expireTime
+		 *            过期时间
+		 */
+		CountEntry(Integer count, Long expireTime) {
+			this.count = count;
+			this.expireTime = expireTime;
+		}
+
+		/**
+		 * 判断缓存项是否已过期。
+		 * 
+		 * @return 如果已过期返回true，否则返回false。
+		 */
+		Boolean isExpired() {
+			return System.currentTimeMillis() > expireTime;
+		}
+	}
+}
@@ -1,37 +1,74 @@
 package coo.core.hibernate.dao;
 
 import java.io.Serializable;
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.Resource;
 
+import org.hibernate.CacheMode;
 import org.hibernate.Criteria;
+import org.hibernate.Filter;
+import org.hibernate.NonUniqueResultException;
 import org.hibernate.Query;
 import org.hibernate.ReplicationMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StaleObjectStateException;
+import org.hibernate.StatelessSession;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.criterion.Conjunction;
 import org.hibernate.criterion.CriteriaSpecification;
 import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Disjunction;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projection;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.EventSource;
 import org.hibernate.internal.CriteriaImpl;
+import org.hibernate.loader.criteria.CriteriaQueryTranslator;
 import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.EntityPersister;
 import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
 import org.hibernate.search.Search;
+import org.hibernate.search.annotations.ClassBridge;
+import org.hibernate.search.annotations.ClassBridges;
+import org.hibernate.search.annotations.Indexed;
 import org.hibernate.transform.ResultTransformer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 
 import coo.base.constants.Chars;
+import coo.base.model.FacetPage;
+import coo.base.model.KeysetPage;
 import coo.base.model.Page;
+import coo.base.model.Slice;
+import coo.base.util.Assert;
 import coo.base.util.BeanUtils;
+import coo.base.util.CollectionUtils;
 import coo.base.util.StringUtils;
 import coo.core.hibernate.search.FullTextCriteria;
+import coo.core.hibernate.search.FullTextQueryCache;
 
 /**
  * 泛型DAO。
@@ -40,9 +77,23 @@ import coo.core.hibernate.search.FullTextCriteria;
  *            业务实体类型
  */
 public class Dao<T> {
+	private static final Integer DEFAULT_FETCH_SIZE = 50;
+	private static final Integer DEFAULT_BATCH_SIZE = 25;
+	private static final Integer MAX_IN_SIZE = 500;
 	private Logger log = LoggerFactory.getLogger(getClass());
 	@Resource
 	private SessionFactory sessionFactory;
+	@Resource
+	private CountCache countCache;
+	@Resource
+	private QueryResultCache queryResultCache;
+	@Resource
+	private FullTextQueryCache fullTextQueryCache;
+	@Autowired(required = false)
+	private List<BulkWriteListener> bulkWriteListeners = new ArrayList<BulkWriteListener>();
+	/** 增量重建全文索引的修改时间属性 */
+	@Value("${search.indexer.delta_property:modifyDate}")
+	private String deltaProperty = "modifyDate";
 	private Class<T> clazz;
 
 	/**
@@ -149,6 +200,184 @@ public class Dao<T> {
 		getSession().replicate(entity, ReplicationMode.EXCEPTION);
 	}
 
+	/**
+	 * 批量保存或更新实体对象。<br/>
+	 * 每hibernate.jdbc.batch_size条记录刷新并清理一次Session，调用后Session中已有的其它实体对象也将变为游离状态。
+	 * 
+	 * @param entitys
+	 *            待保存实体对象集合
+	 */
+	public void saveAll(Collection<T> entitys) {
+		Session session = getSession();
+		Integer batchSize = getBatchSize();
+		Long startTime = System.currentTimeMillis();
+		int count = 0;
+		for (T entity : entitys) {
+			session.saveOrUpdate(entity);
+			if (++count % batchSize == 0) {
+				session.flush();
+				session.clear();
+			}
+		}
+		session.flush();
+		session.clear();
+		logThroughput("批量保存", count, startTime);
+	}
+
+	/**
+	 * 批量更新实体对象。<br/>
+	 * 每hibernate.jdbc.batch_size条记录刷新并清理一次Session，调用后Session中已有的其它实体对象也将变为游离状态。
+	 * 
+	 * @param entitys
+	 *            待更新实体对象集合
+	 */
+	public void updateAll(Collection<T> entitys) {
+		Session session = getSession();
+		Integer batchSize = getBatchSize();
+		Long startTime = System.currentTimeMillis();
+		int count = 0;
+		for (T entity : entitys) {
+			session.update(entity);
+			if (++count % batchSize == 0) {
+				session.flush();
+				session.clear();
+			}
+		}
+		session.flush();
+		session.clear();
+		logThroughput("批量更新", count, startTime);
+	}
+
+	/**
+	 * 局部更新实体对象。<br/>
+	 * 不加载实体对象，只对指定的属性执行一条update语句，同时清除Session和二级缓存中的实体。
+	 * 如果更新了参与全文索引的属性，将重新加载该实体对象并更新其全文索引。<br/>
+	 * 实体类映射了增量重建全文索引的修改时间属性（默认为modifyDate）且未指定该属性时，自动将其更新为当前时间；
+	 * 修改人等其它审计属性不会自动填充，需要调用方在待更新的属性中指定。<br/>
+	 * 自动更新的修改时间不会触发全文索引更新，只更新了不参与全文索引的属性时，索引中的修改时间在下次增量重建全文索引时刷新。
+	 * 
+	 * @param id
+	 *            实体ID
+	 * @param changes
+	 *            待更新的属性名和属性值
+	 * @return 返回更新的记录条数。
+	 */
+	public Integer patch(Serializable id, Map<String, Object> changes) {
+		return patch(id, changes, null);
+	}
+
+	/**
+	 * 局部更新实体对象并进行乐观锁版本检查。<br/>
+	 * 不加载实体对象，只对指定的属性执行一条update语句，同时清除Session和二级缓存中的实体。
+	 * 如果更新了参与全文索引的属性，将重新加载该实体对象并更新其全文索引。<br/>
+	 * 实体类映射了增量重建全文索引的修改时间属性（默认为modifyDate）且未指定该属性时，自动将其更新为当前时间；
+	 * 修改人等其它审计属性不会自动填充，需要调用方在待更新的属性中指定。<br/>
+	 * 自动更新的修改时间不会触发全文索引更新，只更新了不参与全文索引的属性时，索引中的修改时间在下次增量重建全文索引时刷新。
+	 * 
+	 * @param id
+	 *            实体ID
+	 * @param changes
+	 *            待更新的属性名和属性值
+	 * @param version
+	 *            期望的版本号，为null时不检查版本
+	 * @return 返回更新的记录条数。
+	 */
+	public Integer patch(Serializable id, Map<String, Object> changes,
+			Object version) {
+		Assert.notNull(id, "局部更新实体对象时必须指定实体ID。");
+		if (changes == null || changes.isEmpty()) {
+			return 0;
+		}
+		ClassMetadata meta = sessionFactory.getClassMetadata(clazz);
+		List<String> propertyNames = Arrays.asList(meta.getPropertyNames());
+		String versionName = meta.isVersioned() ? propertyNames.get(meta
+				.getVersionProperty()) : null;
+		// 只根据调用方指定的属性判断是否需要更新全文索引，自动更新的修改时间不触发索引更新
+		Boolean indexed = isIndexedProperty(new ArrayList<String>(changes
+				.keySet()));
+		// 更新修改时间，否则增量重建全文索引时会漏掉局部更新的实体
+		if (propertyNames.contains(deltaProperty)
+				&& !changes.containsKey(deltaProperty)
+				&& Date.class.isAssignableFrom(meta.getPropertyType(
+						deltaProperty).getReturnedClass())) {
+			changes = new LinkedHashMap<String, Object>(changes);
+			changes.put(deltaProperty, new Date());
+		}
+		StringBuilder hql = new StringBuilder("update ");
+		if (versionName != null) {
+			hql.append("versioned ");
+		}
+		hql.append(clazz.getName()).append(" set ");
+		List<String> names = new ArrayList<String>(changes.keySet());
+		for (int i = 0; i < names.size(); i++) {
+			String name = names.get(i);
+			Assert.isTrue(propertyNames.contains(name)
+					&& !name.equals(versionName)
+					&& !meta.getPropertyType(name).isCollectionType(),
+					"属性[" + name + "]不能局部更新。");
+			if (i > 0) {
+				hql.append(", ");
+			}
+			hql.append(name).append(" = :p").append(i);
+		}
+		hql.append(" where ").append(getIdName()).append(" = :id");
+		if (version != null) {
+			Assert.notNull(versionName, clazz.getName() + "没有定义版本属性。");
+			hql.append(" and ").append(versionName).append(" = :version");
+		}
+
+		Query query = getSession().createQuery(hql.toString());
+		for (int i = 0; i < names.size(); i++) {
+			query.setParameter("p" + i, changes.get(names.get(i)),
+					meta.getPropertyType(names.get(i)));
+		}
+		query.setParameter("id", id);
+		if (version != null) {
+			query.setParameter("version", version,
+					meta.getPropertyType(versionName));
+		}
+		Integer count = query.executeUpdate();
+		evict(Collections.singletonList(id), false);
+		if (version != null && count == 0) {
+			throw new StaleObjectStateException(clazz.getName(), id);
+		}
+		invalidateCaches();
+		if (count > 0 && indexed) {
+			getFullTextSession().index(get(id));
+		}
+		return count;
+	}
+
+	/**
+	 * 使用StatelessSession批量插入实体对象。<br/>
+	 * StatelessSession共享当前事务的数据库连接，不经过一级/二级缓存，也不触发Hibernate事件，
+	 * 因此插入的实体对象不会同步生成全文索引，如有需要应在插入完成后重建全文索引。
+	 * 
+	 * @param entitys
+	 *            待插入实体对象集合
+	 */
+	public void insertBulk(Collection<T> entitys) {
+		Connection connection = ((SessionImplementor) getSession())
+				.connection();
+		StatelessSession statelessSession = sessionFactory
+				.openStatelessSession(connection);
+		Long startTime = System.currentTimeMillis();
+		int count = 0;
+		try {
+			for (T entity : entitys) {
+				statelessSession.insert(entity);
+				count++;
+			}
+			// 使用外部连接的StatelessSession关闭时不会执行未满一批的插入语句
+			((SessionImplementor) statelessSession).getTransactionCoordinator()
+					.getJdbcCoordinator().executeBatch();
+		} finally {
+			statelessSession.close();
+		}
+		invalidateCaches();
+		logThroughput("批量插入", count, startTime);
+	}
+
 	/**
 	 * 删除实体对象。
 	 * 
@@ -181,6 +410,34 @@ public class Dao<T> {
 		}
 	}
 
+	/**
+	 * 根据ID集合批量删除实体对象。<br/>
+	 * 按批次执行delete ... where id in (...)语句，不加载实体对象，同时清除二级缓存中的实体并删除其全文索引。<br/>
+	 * 该方法不会级联删除关联对象。
+	 * 
+	 * @param ids
+	 *            待删除实体对象ID集合
+	 * @return 返回删除的记录条数。
+	 */
+	public Integer removeAll(Collection<? extends Serializable> ids) {
+		if (CollectionUtils.isEmpty(ids)) {
+			return 0;
+		}
+		String hql = "delete from " + clazz.getName() + " where "
+				+ getIdName() + " in (:ids)";
+		List<Serializable> idList = new ArrayList<Serializable>(ids);
+		int count = 0;
+		for (int i = 0; i < idList.size(); i += MAX_IN_SIZE) {
+			List<Serializable> chunk = idList.subList(i,
+					Math.min(i + MAX_IN_SIZE, idList.size()));
+			evict(chunk, true);
+			count += getSession().createQuery(hql)
+					.setParameterList("ids", chunk).executeUpdate();
+		}
+		invalidateCaches();
+		return count;
+	}
+
 	/**
 	 * 根据属性批量删除实体对象
 	 * 
@@ -193,6 +450,7 @@ public class Dao<T> {
 		Query query = createQuery("delete from " + clazz.getName() + " where "
 				+ name + "=?", value);
 		query.executeUpdate();
+		invalidateCaches();
 	}
 
 	/**
@@ -278,10 +536,9 @@ public class Dao<T> {
 	 * 
 	 * @return 返回指定类型的所有实体对象。
 	 */
-	@SuppressWarnings("unchecked")
 	public List<T> getAll() {
 		Criteria criteria = createCriteria();
-		return criteria.list();
+		return listCached(criteria);
 	}
 
 	/**
@@ -293,10 +550,9 @@ public class Dao<T> {
 	 *            是否升序
 	 * @return 返回排序后的指定类型的所有实体对象。
 	 */
-	@SuppressWarnings("unchecked")
 	public List<T> getAll(String orderBy, Boolean isAsc) {
 		Criteria criteria = createCriteria(orderBy, isAsc);
-		return criteria.list();
+		return listCached(criteria);
 	}
 
 	/**
@@ -308,7 +564,6 @@ public class Dao<T> {
 	 *            属性值
 	 * @return 返回属性值相符的实体对象集合，如果没有找到返回一个空的集合。
 	 */
-	@SuppressWarnings("unchecked")
 	public List<T> findBy(String name, Object value) {
 		Criteria criteria = createCriteria();
 		if (value == null) {
@@ -316,7 +571,7 @@ public class Dao<T> {
 		} else {
 			criteria.add(Restrictions.eq(name, value));
 		}
-		return criteria.list();
+		return listCached(criteria);
 	}
 
 	/**
@@ -332,7 +587,6 @@ public class Dao<T> {
 	 *            是否升序
 	 * @return 返回排序后的属性值相符的实体对象集合，如果没有找到返回一个空的集合。
 	 */
-	@SuppressWarnings("unchecked")
 	public List<T> findBy(String name, Object value, String orderBy,
 			boolean isAsc) {
 		Criteria criteria = createCriteria(orderBy, isAsc);
@@ -341,7 +595,7 @@ public class Dao<T> {
 		} else {
 			criteria.add(Restrictions.eq(name, value));
 		}
-		return criteria.list();
+		return listCached(criteria);
 	}
 
 	/**
@@ -386,7 +640,14 @@ public class Dao<T> {
 	@SuppressWarnings("unchecked")
 	public T findUnique(String name, Object value) {
 		Criteria criteria = createCriteria(Restrictions.eq(name, value));
-		return (T) criteria.uniqueResult();
+		if (!queryResultCache.isCacheable(clazz)) {
+			return (T) criteria.uniqueResult();
+		}
+		List<T> entitys = listCached(criteria);
+		if (entitys.size() > 1) {
+			throw new NonUniqueResultException(entitys.size());
+		}
+		return entitys.isEmpty() ? null : entitys.get(0);
 	}
 
 	/**
@@ -439,6 +700,42 @@ public class Dao<T> {
 				values);
 	}
 
+	/**
+	 * 根据HQL查询语句进行分页查询，总记录数从缓存获取。<br/>
+	 * 只有查询语句仅涉及当前实体类的表时才缓存总记录数，涉及其它实体类（关联、子查询）时每次执行count查询。
+	 * 
+	 * @param hql
+	 *            HQL查询语句
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @param values
+	 *            参数值
+	 * @return 返回查询得到的分页对象。
+	 */
+	public Page<T> findCachedPage(String hql, Integer pageNo,
+			Integer pageSize, Object... values) {
+		SessionFactoryImplementor factory = (SessionFactoryImplementor) sessionFactory;
+		Set<Serializable> querySpaces = factory
+				.getQueryPlanCache()
+				.getHQLQueryPlan(hql, false,
+						Collections.<String, Filter> emptyMap())
+				.getQuerySpaces();
+		if (!isOwnQuerySpaces(querySpaces)) {
+			return findPage(hql, pageNo, pageSize, values);
+		}
+		String key = "hql:" + hql.trim().replaceAll("\\s+", " ")
+				+ Arrays.deepToString(values);
+		Long generation = countCache.getGeneration(clazz);
+		Integer totalCount = countCache.get(clazz, key);
+		if (totalCount == null) {
+			totalCount = countHqlResult(hql, values);
+			countCache.put(clazz, key, totalCount, generation);
+		}
+		return findPage(hql, pageNo, pageSize, totalCount, values);
+	}
+
 	/**
 	 * 根据条件查询对象进行分页查询。
 	 * 
@@ -483,13 +780,206 @@ public class Dao<T> {
 				countCriteriaResult(criteria));
 	}
 
+	/**
+	 * 根据条件查询对象进行分页查询，总记录数从缓存获取。<br/>
+	 * 只有条件查询仅涉及当前实体类的表时才缓存总记录数，涉及其它实体类（关联、子查询）时每次执行count查询。
+	 * 
+	 * @param criteria
+	 *            条件查询对象
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回查询得到的分页对象。
+	 */
+	public Page<T> findCachedPage(Criteria criteria, Integer pageNo,
+			Integer pageSize) {
+		CriteriaImpl impl = (CriteriaImpl) criteria;
+		CriteriaQueryTranslator translator = new CriteriaQueryTranslator(
+				(SessionFactoryImplementor) sessionFactory, impl,
+				impl.getEntityOrClassName(),
+				CriteriaQueryTranslator.ROOT_SQL_ALIAS);
+		if (!isOwnQuerySpaces(translator.getQuerySpaces())) {
+			return findPage(criteria, pageNo, pageSize);
+		}
+		// sqlRestriction等条件的toString不包含参数值，需要加上翻译后的参数值
+		String key = "criteria:"
+				+ criteria.toString()
+				+ Arrays.deepToString(translator.getQueryParameters()
+						.getPositionalParameterValues());
+		Long generation = countCache.getGeneration(clazz);
+		Integer totalCount = countCache.get(clazz, key);
+		if (totalCount == null) {
+			totalCount = countCriteriaResult(criteria);
+			countCache.put(clazz, key, totalCount, generation);
+		}
+		return findPage(criteria, pageNo, pageSize, totalCount);
+	}
+
+	/**
+	 * 根据条件查询对象进行分片查询。<br/>
+	 * 不执行count查询，多取一条记录来判断是否存在下一页。
+	 * 
+	 * @param criteria
+	 *            条件查询对象
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回查询得到的分片对象。
+	 */
+	@SuppressWarnings("unchecked")
+	public Slice<T> findSlice(Criteria criteria, Integer pageNo,
+			Integer pageSize) {
+		List<T> list = criteria.setFirstResult(getFirstResult(pageNo, pageSize))
+				.setMaxResults(pageSize + 1).list();
+		return createSlice(list, pageNo, pageSize);
+	}
+
+	/**
+	 * 根据HQL查询语句进行分片查询。<br/>
+	 * 不执行count查询，多取一条记录来判断是否存在下一页。
+	 * 
+	 * @param hql
+	 *            HQL查询语句
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @param values
+	 *            参数值
+	 * @return 返回查询得到的分片对象。
+	 */
+	@SuppressWarnings("unchecked")
+	public Slice<T> findSlice(String hql, Integer pageNo, Integer pageSize,
+			Object... values) {
+		List<T> list = createQuery(hql, values)
+				.setFirstResult(getFirstResult(pageNo, pageSize))
+				.setMaxResults(pageSize + 1).list();
+		return createSlice(list, pageNo, pageSize);
+	}
+
+	/**
+	 * 根据条件查询对象进行键集分页查询。<br/>
+	 * 通过游标在有序键上定位（where key > ?）代替setFirstResult偏移，适用于深度翻页的大表。<br/>
+	 * 有序键的组合必须唯一（通常以ID作为最后一个键），且键值不能为空；条件查询对象中不能再设置排序。
+	 * 
+	 * @param criteria
+	 *            条件查询对象
+	 * @param keys
+	 *            有序键，多个键用","分割，例如"createDate,id"
+	 * @param isAsc
+	 *            是否升序
+	 * @param cursor
+	 *            游标，为空时获取第一页
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回查询得到的键集分页对象。
+	 */
+	@SuppressWarnings("unchecked")
+	public KeysetPage<T> findKeysetPage(Criteria criteria, String keys,
+			Boolean isAsc, String cursor, Integer pageSize) {
+		String[] keyNames = keys.split(Chars.COMMA);
+		KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+		Boolean backward = keysetCursor != null && keysetCursor.getBackward();
+		// 向前翻页时反转排序方向，取回后再将结果倒序
+		Boolean asc = isAsc ^ backward;
+		if (keysetCursor != null) {
+			criteria.add(createSeekCriterion(keyNames,
+					keysetCursor.getValues(), asc));
+		}
+		for (String keyName : keyNames) {
+			criteria.addOrder(asc ? Order.asc(keyName) : Order.desc(keyName));
+		}
+		// 多取一条记录用于判断翻页方向上是否还有数据
+		List<T> list = criteria.setMaxResults(pageSize + 1).list();
+		Boolean hasMore = list.size() > pageSize;
+		if (hasMore) {
+			list = new ArrayList<T>(list.subList(0, pageSize));
+		}
+		if (backward) {
+			Collections.reverse(list);
+		}
+
+		KeysetPage<T> page = new KeysetPage<T>(pageSize);
+		page.setContents(list);
+		page.setFirst(backward ? !hasMore : keysetCursor == null);
+		page.setLast(backward ? false : !hasMore);
+		if (!list.isEmpty()) {
+			page.setPreviousCursor(new KeysetCursor(true, getKeyValues(
+					list.get(0), keyNames)).encode());
+			page.setNextCursor(new KeysetCursor(false, getKeyValues(
+					list.get(list.size() - 1), keyNames)).encode());
+		}
+		return page;
+	}
+
+	/**
+	 * 根据条件查询对象进行流式查询。<br/>
+	 * 每处理hibernate.jdbc.fetch_size条记录清理一次Session。
+	 * 
+	 * @param criteria
+	 *            条件查询对象
+	 * @return 返回查询结果的流式迭代器。
+	 */
+	public ScrollableIterator<T> stream(Criteria criteria) {
+		return stream(criteria, getFetchSize());
+	}
+
+	/**
+	 * 根据条件查询对象进行流式查询。
+	 * 
+	 * @param criteria
+	 *            条件查询对象
+	 * @param clearSize
+	 *            每处理多少条记录清理一次Session
+	 * @return 返回查询结果的流式迭代器。
+	 */
+	public ScrollableIterator<T> stream(Criteria criteria, Integer clearSize) {
+		ScrollableResults results = criteria.setFetchSize(getFetchSize())
+				.setCacheMode(CacheMode.IGNORE)
+				.scroll(ScrollMode.FORWARD_ONLY);
+		return new ScrollableIterator<T>(results, getSession(), clearSize);
+	}
+
+	/**
+	 * 根据HQL查询语句进行流式查询。<br/>
+	 * HQL查询语句只能查询实体对象，每处理hibernate.jdbc.fetch_size条记录清理一次Session。
+	 * 
+	 * @param hql
+	 *            HQL查询语句
+	 * @param values
+	 *            参数值
+	 * @return 返回查询结果的流式迭代器。
+	 */
+	public ScrollableIterator<T> stream(String hql, Object... values) {
+		return stream(createQuery(hql, values), getFetchSize());
+	}
+
+	/**
+	 * 根据查询对象进行流式查询。
+	 * 
+	 * @param query
+	 *            查询对象
+	 * @param clearSize
+	 *            每处理多少条记录清理一次Session
+	 * @return 返回查询结果的流式迭代器。
+	 */
+	public ScrollableIterator<T> stream(Query query, Integer clearSize) {
+		ScrollableResults results = query.setFetchSize(getFetchSize())
+				.setCacheMode(CacheMode.IGNORE)
+				.scroll(ScrollMode.FORWARD_ONLY);
+		return new ScrollableIterator<T>(results, getSession(), clearSize);
+	}
+
 	/**
 	 * 创建全文搜索查询对象。
 	 * 
 	 * @return 返回全文搜索查询对象。
 	 */
 	public FullTextCriteria createFullTextCriteria() {
-		return new FullTextCriteria(getFullTextSession(), clazz);
+		return new FullTextCriteria(getFullTextSession(), clazz,
+				fullTextQueryCache);
 	}
 
 	/**
@@ -505,7 +995,8 @@ public class Dao<T> {
 	}
 
 	/**
-	 * 根据全文搜索查询对象进行分页全文搜索。
+	 * 根据全文搜索查询对象进行分页全文搜索。<br/>
+	 * 先获取当前页的记录再获取命中总数，命中总数由获取当前页的同一次Lucene搜索得到，当前页的实体对象通过一条按ID批量查询的语句加载。
 	 * 
 	 * @param fullTextCriteria
 	 *            全文搜索查询对象
@@ -515,27 +1006,133 @@ public class Dao<T> {
 	 *            每页的记录数
 	 * @return 返回搜索得到的分页对象。
 	 */
-	@SuppressWarnings("unchecked")
 	public Page<T> searchPage(FullTextCriteria fullTextCriteria,
 			Integer pageNo, Integer pageSize) {
-		FullTextQuery fullTextQuery = fullTextCriteria.generateQuery();
-		int total = 0;
+		return searchPage(fullTextCriteria.generateQuery(), pageNo, pageSize);
+	}
+
+	/**
+	 * 根据全文搜索查询对象进行分页投影搜索。<br/>
+	 * 当前页的记录由索引中存储的字段值直接构造，整个搜索过程不访问数据库。投影字段的设置请参考FullTextCriteria.setProjection方法。
+	 * 
+	 * @param fullTextCriteria
+	 *            全文搜索查询对象
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回搜索得到的分页对象，其中的实体对象只包含实体ID和投影字段。
+	 */
+	public Page<T> searchProjectionPage(FullTextCriteria fullTextCriteria,
+			Integer pageNo, Integer pageSize) {
+		return searchPage(fullTextCriteria.generateProjectionQuery(), pageNo,
+				pageSize);
+	}
+
+	/**
+	 * 根据全文搜索查询对象进行分片全文搜索。<br/>
+	 * 不统计命中总数，多取一条记录来判断是否存在下一页。
+	 * 
+	 * @param fullTextCriteria
+	 *            全文搜索查询对象
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回搜索得到的分片对象。
+	 */
+	@SuppressWarnings("unchecked")
+	public Slice<T> searchSlice(FullTextCriteria fullTextCriteria,
+			Integer pageNo, Integer pageSize) {
+		List<T> list = new ArrayList<T>();
 		try {
-			// 当实体对应数据库中没有记录，其索引文件未生成时该方法会抛出异常
-			// 这里捕捉后忽略该异常
-			total = fullTextQuery.getResultSize();
+			list = fullTextCriteria.generateQuery()
+					.setFirstResult(getFirstResult(pageNo, pageSize))
+					.setMaxResults(pageSize + 1).list();
 		} catch (Exception e) {
 			log.warn("实体 " + clazz + " 全文索引文件尚未生成。", e);
 		}
-		if (total < 1) {
-			return new Page<T>(pageSize);
+		return createSlice(list, pageNo, pageSize);
+	}
+
+	/**
+	 * 根据全文搜索查询对象进行键集分页全文搜索。<br/>
+	 * 以全文搜索的排序字段加实体ID作为有序键，通过游标定位上一页的最后一条（或下一页的第一条）命中记录，
+	 * 每次只收集一页的命中记录，翻页的代价与页码深度无关。不统计命中总数。只在索引中搜索，不支持FullTextCriteria.setCriteriaQuery和enableFullTextFilter。
+	 * 
+	 * @param fullTextCriteria
+	 *            全文搜索查询对象
+	 * @param cursor
+	 *            翻页游标，为空时获取第一页
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回搜索得到的键集分页对象。
+	 */
+	public KeysetPage<T> searchKeysetPage(FullTextCriteria fullTextCriteria,
+			String cursor, Integer pageSize) {
+		fullTextCriteria.checkIndexOnly();
+		KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+		Boolean backward = keysetCursor != null && keysetCursor.getBackward();
+		List<Object[]> hits = new ArrayList<Object[]>();
+		try {
+			// 多取一条命中记录用于判断翻页方向上是否还有数据
+			hits = fullTextCriteria.searchAfter(keysetCursor == null ? null
+					: keysetCursor.getValues(), backward, pageSize + 1);
+		} catch (Exception e) {
+			log.warn("实体 " + clazz + " 全文索引文件尚未生成。", e);
+		}
+		Boolean hasMore = hits.size() > pageSize;
+		if (hasMore) {
+			hits = new ArrayList<Object[]>(hits.subList(0, pageSize));
+		}
+		if (backward) {
+			Collections.reverse(hits);
 		}
 
-		Page<T> page = new Page<T>(total, pageNo, pageSize);
-		fullTextQuery.setFirstResult((page.getNumber() - 1) * pageSize)
-				.setMaxResults(pageSize);
-		List<T> result = fullTextQuery.list();
-		page.setContents(result);
+		List<Serializable> ids = new ArrayList<Serializable>();
+		for (Object[] hit : hits) {
+			ids.add((Serializable) hit[hit.length - 1]);
+		}
+
+		KeysetPage<T> page = new KeysetPage<T>(pageSize);
+		page.setContents(getOrderedList(ids));
+		page.setFirst(backward ? !hasMore : keysetCursor == null);
+		page.setLast(backward ? false : !hasMore);
+		if (!hits.isEmpty()) {
+			page.setPreviousCursor(new KeysetCursor(true, hits.get(0))
+					.encode());
+			page.setNextCursor(new KeysetCursor(false, hits
+					.get(hits.size() - 1)).encode());
+		}
+		return page;
+	}
+
+	/**
+	 * 根据全文搜索查询对象进行带分面统计的分页全文搜索。<br/>
+	 * 当前页的命中记录和各分面字段的统计结果由同一次搜索得到，分面字段通过FullTextCriteria.addFacet设置。只在索引中搜索，不支持FullTextCriteria.setCriteriaQuery和enableFullTextFilter。
+	 * 
+	 * @param fullTextCriteria
+	 *            全文搜索查询对象
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回搜索得到的带分面统计的分页对象。
+	 */
+	public FacetPage<T> searchFacetPage(FullTextCriteria fullTextCriteria,
+			Integer pageNo, Integer pageSize) {
+		fullTextCriteria.checkIndexOnly();
+		FacetPage<Serializable> idPage = new FacetPage<Serializable>(pageSize);
+		try {
+			idPage = fullTextCriteria.searchFacetPage(pageNo, pageSize);
+		} catch (Exception e) {
+			log.warn("实体 " + clazz + " 全文索引文件尚未生成。", e);
+		}
+		FacetPage<T> page = idPage.getCount() < 1 ? new FacetPage<T>(pageSize)
+				: new FacetPage<T>(idPage.getCount(), idPage.getNumber(),
+						pageSize);
+		page.setContents(getOrderedList(idPage.getContents()));
+		page.setFacets(idPage.getFacets());
 		return page;
 	}
 
@@ -606,6 +1203,331 @@ public class Dao<T> {
 				.uniqueResult().toString());
 	}
 
+	/**
+	 * 根据Hibernate的FullTextQuery全文搜索对象进行分页全文搜索。
+	 * 
+	 * @param fullTextQuery
+	 *            Hibernate的FullTextQuery全文搜索对象
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回搜索得到的分页对象。
+	 */
+	@SuppressWarnings("unchecked")
+	private Page<T> searchPage(FullTextQuery fullTextQuery, Integer pageNo,
+			Integer pageSize) {
+		Integer firstResult = getFirstResult(pageNo, pageSize);
+		List<T> result = new ArrayList<T>();
+		int total = 0;
+		try {
+			// 当实体对应数据库中没有记录，其索引文件未生成时该方法会抛出异常
+			// 这里捕捉后忽略该异常
+			result = fullTextQuery.setFirstResult(firstResult)
+					.setMaxResults(pageSize).list();
+			total = fullTextQuery.getResultSize();
+		} catch (Exception e) {
+			log.warn("实体 " + clazz + " 全文索引文件尚未生成。", e);
+		}
+		if (total < 1) {
+			return new Page<T>(pageSize);
+		}
+
+		Page<T> page = new Page<T>(total, pageNo, pageSize);
+		// 请求的页数超出总页数时重新获取最后一页
+		Integer pageFirstResult = getFirstResult(page.getNumber(), pageSize);
+		if (!pageFirstResult.equals(firstResult)) {
+			result = fullTextQuery.setFirstResult(pageFirstResult).list();
+		}
+		page.setContents(result);
+		return page;
+	}
+
+	/**
+	 * 获取分片查询的起始记录序号。
+	 * 
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回分片查询的起始记录序号。
+	 */
+	private Integer getFirstResult(Integer pageNo, Integer pageSize) {
+		return (pageNo < 1 ? 0 : pageNo - 1) * pageSize;
+	}
+
+	/**
+	 * 根据多取一条记录的查询结果生成分片对象。
+	 * 
+	 * @param list
+	 *            查询结果
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回分片对象。
+	 */
+	private Slice<T> createSlice(List<T> list, Integer pageNo, Integer pageSize) {
+		Boolean hasNext = list.size() > pageSize;
+		Slice<T> slice = new Slice<T>(pageNo, pageSize, hasNext);
+		slice.setContents(hasNext ? new ArrayList<T>(list.subList(0, pageSize))
+				: list);
+		return slice;
+	}
+
+	/**
+	 * 生成键集分页的定位条件。<br/>
+	 * 例如有序键(a,b)升序时生成：a > ? or (a = ? and b > ?)。
+	 * 
+	 * @param keyNames
+	 *            有序键
+	 * @param values
+	 *            定位行的有序键值
+	 * @param asc
+	 *            是否升序
+	 * @return 返回键集分页的定位条件。
+	 */
+	private Criterion createSeekCriterion(String[] keyNames, Object[] values,
+			Boolean asc) {
+		Assert.isTrue(keyNames.length == values.length, "键集分页游标与有序键不匹配。");
+		Disjunction seek = Restrictions.disjunction();
+		for (int i = 0; i < keyNames.length; i++) {
+			Conjunction item = Restrictions.conjunction();
+			for (int j = 0; j < i; j++) {
+				item.add(Restrictions.eq(keyNames[j], values[j]));
+			}
+			if (asc) {
+				item.add(Restrictions.gt(keyNames[i], values[i]));
+			} else {
+				item.add(Restrictions.lt(keyNames[i], values[i]));
+			}
+			seek.add(item);
+		}
+		return seek;
+	}
+
+	/**
+	 * 获取实体对象的有序键值。
+	 * 
+	 * @param entity
+	 *            实体对象
+	 * @param keyNames
+	 *            有序键
+	 * @return 返回实体对象的有序键值。
+	 */
+	private Object[] getKeyValues(T entity, String[] keyNames) {
+		Object[] values = new Object[keyNames.length];
+		for (int i = 0; i < keyNames.length; i++) {
+			values[i] = BeanUtils.getField(entity, keyNames[i]);
+		}
+		return values;
+	}
+
+	/**
+	 * 查询实体对象列表，实体类启用了查询结果缓存时优先从缓存中获取。<br/>
+	 * 缓存中只保存实体ID，命中时按ID列表一次查询获取实体对象，任一实体已不存在时重新查询。
+	 * 
+	 * @param criteria
+	 *            Criteria查询对象
+	 * @return 返回实体对象列表。
+	 */
+	@SuppressWarnings("unchecked")
+	private List<T> listCached(Criteria criteria) {
+		// Session中存在未刷新的修改时缓存结果可能已过时，直接查询以触发自动刷新
+		if (!queryResultCache.isCacheable(clazz) || getSession().isDirty()) {
+			return criteria.list();
+		}
+		StringBuilder key = new StringBuilder(criteria.toString());
+		Iterator<CriteriaImpl.OrderEntry> orderings = ((CriteriaImpl) criteria)
+				.iterateOrderings();
+		while (orderings.hasNext()) {
+			key.append(orderings.next());
+		}
+		// 在查询前读取失效代数，查询期间发生失效时不写入缓存
+		Long generation = queryResultCache.getGeneration(clazz);
+		List<Serializable> ids = queryResultCache.get(clazz, key.toString());
+		if (ids != null) {
+			List<T> entitys = getOrderedList(ids);
+			if (entitys.size() == ids.size()) {
+				return entitys;
+			}
+		}
+		List<T> entitys = criteria.list();
+		ids = new ArrayList<Serializable>();
+		for (T entity : entitys) {
+			ids.add(getSession().getIdentifier(entity));
+		}
+		queryResultCache.put(clazz, key.toString(), ids, generation);
+		return entitys;
+	}
+
+	/**
+	 * 判断查询涉及的表是否都属于当前实体类。
+	 * 
+	 * @param querySpaces
+	 *            查询涉及的表
+	 * @return 如果查询涉及的表都属于当前实体类返回true，否则返回false。
+	 */
+	private Boolean isOwnQuerySpaces(Set<Serializable> querySpaces) {
+		EntityPersister persister = ((SessionFactoryImplementor) sessionFactory)
+				.getEntityPersister(clazz.getName());
+		return Arrays.asList(persister.getQuerySpaces()).containsAll(
+				querySpaces);
+	}
+
+	/**
+	 * 通知批量写操作监听器当前实体类发生了批量写操作，使依赖Hibernate事件维护的缓存失效。<br/>
+	 * 用于不会触发Hibernate事件的批量操作。事务结束后再通知一次，避免事务提交前其它查询读取旧数据重新写入缓存。
+	 */
+	private void invalidateCaches() {
+		notifyBulkWrite();
+		((EventSource) getSession()).getActionQueue().registerProcess(
+				new AfterTransactionCompletionProcess() {
+					@Override
+					public void doAfterTransactionCompletion(boolean success,
+							SessionImplementor session) {
+						notifyBulkWrite();
+					}
+				});
+	}
+
+	/**
+	 * 通知所有批量写操作监听器当前实体类发生了批量写操作。
+	 */
+	private void notifyBulkWrite() {
+		for (BulkWriteListener listener : bulkWriteListeners) {
+			listener.onBulkWrite(clazz);
+		}
+	}
+
+	/**
+	 * 将指定ID的实体对象从Session和二级缓存中清除，并根据需要删除其全文索引。
+	 * 
+	 * @param ids
+	 *            实体对象ID集合
+	 * @param purge
+	 *            是否删除全文索引
+	 */
+	private void evict(List<Serializable> ids, Boolean purge) {
+		SessionImplementor session = (SessionImplementor) getSession();
+		EntityPersister persister = session.getFactory().getEntityPersister(
+				clazz.getName());
+		FullTextSession fullTextSession = getFullTextSession();
+		Boolean indexed = purge && clazz.isAnnotationPresent(Indexed.class);
+		for (Serializable id : ids) {
+			Object entity = session.getPersistenceContext().getEntity(
+					session.generateEntityKey(id, persister));
+			if (entity != null) {
+				getSession().evict(entity);
+			}
+			sessionFactory.getCache().evictEntity(clazz, id);
+			if (indexed) {
+				fullTextSession.purge(clazz, id);
+			}
+		}
+	}
+
+	/**
+	 * 判断属性中是否有参与全文索引的属性。
+	 * 
+	 * @param names
+	 *            属性名集合
+	 * @return 如果实体类启用了全文索引且存在标注了全文索引注解的属性或定义了类桥接器返回true，否则返回false。
+	 */
+	private Boolean isIndexedProperty(List<String> names) {
+		if (!clazz.isAnnotationPresent(Indexed.class)) {
+			return false;
+		}
+		if (clazz.isAnnotationPresent(ClassBridge.class)
+				|| clazz.isAnnotationPresent(ClassBridges.class)) {
+			return true;
+		}
+		String searchPackage = Indexed.class.getPackage().getName();
+		for (String name : names) {
+			Field field = BeanUtils.findField(clazz, name);
+			if (field == null) {
+				return true;
+			}
+			for (Annotation annotation : field.getAnnotations()) {
+				if (annotation.annotationType().getPackage().getName()
+						.equals(searchPackage)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 获取配置的JDBC抓取记录数（hibernate.jdbc.fetch_size）。
+	 * 
+	 * @return 返回配置的JDBC抓取记录数。
+	 */
+	private Integer getFetchSize() {
+		Integer fetchSize = ((SessionFactoryImplementor) sessionFactory)
+				.getSettings().getJdbcFetchSize();
+		return fetchSize != null && fetchSize > 0 ? fetchSize
+				: DEFAULT_FETCH_SIZE;
+	}
+
+	/**
+	 * 获取配置的JDBC批量更新记录数（hibernate.jdbc.batch_size）。
+	 * 
+	 * @return 返回配置的JDBC批量更新记录数。
+	 */
+	private Integer getBatchSize() {
+		Integer batchSize = ((SessionFactoryImplementor) sessionFactory)
+				.getSettings().getJdbcBatchSize();
+		return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+	}
+
+	/**
+	 * 记录批量操作的吞吐量日志。
+	 * 
+	 * @param operation
+	 *            操作名称
+	 * @param count
+	 *            记录条数
+	 * @param startTime
+	 *            开始时间
+	 */
+	private void logThroughput(String operation, Integer count, Long startTime) {
+		Long time = System.currentTimeMillis() - startTime;
+		Long rate = time > 0 ? count * 1000L / time : count;
+		log.info(operation + " " + clazz.getSimpleName() + " " + count
+				+ "条记录，耗时" + time + "毫秒，" + rate + "条/秒。");
+	}
+
+	/**
+	 * 根据主键列表获取实体对象列表，结果按主键列表的顺序排列，不存在的实体对象被忽略。
+	 * 
+	 * @param ids
+	 *            主键列表
+	 * @return 返回实体对象列表。
+	 */
+	@SuppressWarnings("unchecked")
+	private List<T> getOrderedList(List<Serializable> ids) {
+		List<T> list = new ArrayList<T>();
+		if (ids.isEmpty()) {
+			return list;
+		}
+		Map<Serializable, T> entitys = new HashMap<Serializable, T>();
+		for (int i = 0; i < ids.size(); i += MAX_IN_SIZE) {
+			List<Serializable> chunk = ids.subList(i,
+					Math.min(i + MAX_IN_SIZE, ids.size()));
+			for (T entity : (List<T>) createCriteria(
+					Restrictions.in(getIdName(), chunk)).list()) {
+				entitys.put(getSession().getIdentifier(entity), entity);
+			}
+		}
+		for (Serializable id : ids) {
+			if (entitys.containsKey(id)) {
+				list.add(entitys.get(id));
+			}
+		}
+		return list;
+	}
+
 	/**
 	 * 获取实体类的主键值。
 	 * 
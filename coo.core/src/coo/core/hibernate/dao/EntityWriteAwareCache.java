@@ -0,0 +1,132 @@
+package coo.core.hibernate.dao;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+
+import coo.core.jdbc.ReplicaRoutingDataSource;
+
+/**
+ * 随实体写操作失效的缓存基类。<br/>
+ * 在Hibernate中注册新增、更新、删除事件监听器（包括事务提交后的事件），当某个实体类发生写操作时使该实体类的缓存失效。<br/>
+ * 不会触发Hibernate事件的操作（HQL批量更新/删除、StatelessSession）通过{@link BulkWriteListener}通知缓存失效，Dao以外的批量操作需要由调用方主动调用invalidate方法。<br/>
+ * 每个实体类维护一个失效代数，每次失效时加1。调用方在查询前读取代数，写入缓存时代数已变化说明查询期间发生过失效，查询结果可能已过时，不再写入缓存。<br/>
+ * 当前事务由读写分离数据源路由到从库时，查询结果可能落后于已提交的写操作，同样不写入缓存。
+ */
+public abstract class EntityWriteAwareCache implements
+		PostInsertEventListener, PostUpdateEventListener,
+		PostDeleteEventListener, BulkWriteListener {
+	private static final long serialVersionUID = -2164835240739358817L;
+	@Resource
+	protected SessionFactory sessionFactory;
+	/** 各实体类的失效代数 */
+	private ConcurrentMap<Class<?>, AtomicLong> generations = new ConcurrentHashMap<Class<?>, AtomicLong>();
+
+	/**
+	 * 在Hibernate中注册实体写操作事件监听器。
+	 */
+	@PostConstruct
+	public void registerListeners() {
+		EventListenerRegistry registry = ((SessionFactoryImplementor) sessionFactory)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_INSERT, this);
+		registry.appendListeners(EventType.POST_UPDATE, this);
+		registry.appendListeners(EventType.POST_DELETE, this);
+		registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+		registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+		registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		invalidate(event.getPersister().getMappedClass());
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		invalidate(event.getPersister().getMappedClass());
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		invalidate(event.getPersister().getMappedClass());
+	}
+
+	@Override
+	public void onBulkWrite(Class<?> entityClass) {
+		invalidate(entityClass);
+	}
+
+	/**
+	 * 获取实体类当前的失效代数，在查询前调用，写入缓存时传入。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @return 返回实体类当前的失效代数。
+	 */
+	public Long getGeneration(Class<?> entityClass) {
+		return getGenerationCounter(entityClass).get();
+	}
+
+	/**
+	 * 判断查询结果是否可以写入缓存。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param generation
+	 *            查询前通过getGeneration获取的失效代数
+	 * @return 如果查询期间没有发生失效且当前事务没有路由到从库返回true，否则返回false。
+	 */
+	protected Boolean isPutAllowed(Class<?> entityClass, Long generation) {
+		return generation.equals(getGeneration(entityClass))
+				&& !ReplicaRoutingDataSource.isRoutedToReplica();
+	}
+
+	/**
+	 * 使指定实体类的缓存失效。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 */
+	public abstract void invalidate(Class<?> entityClass);
+
+	/**
+	 * 将实体类的失效代数加1。子类的invalidate方法需要在清除缓存前调用。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 */
+	protected void nextGeneration(Class<?> entityClass) {
+		getGenerationCounter(entityClass).incrementAndGet();
+	}
+
+	/**
+	 * 获取实体类的失效代数计数器，不存在时创建。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @return 返回实体类的失效代数计数器。
+	 */
+	private AtomicLong getGenerationCounter(Class<?> entityClass) {
+		AtomicLong generation = generations.get(entityClass);
+		if (generation == null) {
+			generations.putIfAbsent(entityClass, new AtomicLong());
+			generation = generations.get(entityClass);
+		}
+		return generation;
+	}
+}
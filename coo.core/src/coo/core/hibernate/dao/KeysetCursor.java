@@ -0,0 +1,159 @@
+package coo.core.hibernate.dao;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import coo.base.constants.Chars;
+import coo.base.constants.Encoding;
+import coo.base.exception.UncheckedException;
+import coo.base.util.Base64Utils;
+import coo.base.util.StringUtils;
+
+/**
+ * 键集分页游标。<br/>
+ * 记录翻页方向以及定位行的有序键值，编码为不透明的字符串在页面与服务端之间传递。<br/>
+ * 键值只支持String、Date、Integer、Long、Double、Boolean类型。
+ */
+public class KeysetCursor {
+	private static final String NEXT = "N";
+	private static final String PREVIOUS = "P";
+	/** 是否向前翻页 */
+	private Boolean backward;
+	/** 定位行的有序键值 */
+	private Object[] values;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param backward
+	 *            是否向前翻页
+	 * @param values
+	 *            定位行的有序键值
+	 */
+	public KeysetCursor(Boolean backward, Object... values) {
+		this.backward = backward;
+		this.values = values;
+	}
+
+	/**
+	 * 将游标编码为字符串。
+	 * 
+	 * @return 返回编码后的游标字符串。
+	 */
+	public String encode() {
+		try {
+			List<String> items = new ArrayList<String>();
+			items.add(backward ? PREVIOUS : NEXT);
+			for (Object value : values) {
+				items.add(URLEncoder.encode(encodeValue(value), Encoding.UTF_8));
+			}
+			return new String(Base64Utils.encode(StringUtils.join(items,
+					Chars.COMMA).getBytes(Encoding.UTF_8)), Encoding.UTF_8);
+		} catch (UncheckedException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new UncheckedException("编码键集分页游标时发生异常。", e);
+		}
+	}
+
+	/**
+	 * 将字符串解码为游标。
+	 * 
+	 * @param cursor
+	 *            游标字符串
+	 * @return 返回解码后的游标，如果游标字符串为空返回null。
+	 */
+	public static KeysetCursor decode(String cursor) {
+		if (StringUtils.isBlank(cursor)) {
+			return null;
+		}
+		try {
+			String[] items = new String(Base64Utils.decode(cursor),
+					Encoding.UTF_8).split(Chars.COMMA);
+			Object[] values = new Object[items.length - 1];
+			for (int i = 1; i < items.length; i++) {
+				values[i - 1] = decodeValue(URLDecoder.decode(items[i],
+						Encoding.UTF_8));
+			}
+			return new KeysetCursor(PREVIOUS.equals(items[0]), values);
+		} catch (Exception e) {
+			throw new UncheckedException("无效的键集分页游标：" + cursor, e);
+		}
+	}
+
+	/**
+	 * 将键值编码为带类型前缀的字符串。
+	 * 
+	 * @param value
+	 *            键值
+	 * @return 返回带类型前缀的字符串。
+	 */
+	private static String encodeValue(Object value) {
+		if (value == null) {
+			throw new UncheckedException("键集分页的有序键值不能为空。");
+		}
+		if (value instanceof String) {
+			return "S" + value;
+		}
+		if (value instanceof Date) {
+			return "D" + ((Date) value).getTime();
+		}
+		if (value instanceof Integer) {
+			return "I" + value;
+		}
+		if (value instanceof Long) {
+			return "L" + value;
+		}
+		if (value instanceof Double) {
+			return "F" + value;
+		}
+		if (value instanceof Float) {
+			return "R" + value;
+		}
+		if (value instanceof Boolean) {
+			return "B" + value;
+		}
+		throw new UncheckedException("键集分页不支持的键值类型：" + value.getClass());
+	}
+
+	/**
+	 * 将带类型前缀的字符串解码为键值。
+	 * 
+	 * @param str
+	 *            带类型前缀的字符串
+	 * @return 返回键值。
+	 */
+	private static Object decodeValue(String str) {
+		char type = str.charAt(0);
+		String value = str.substring(1);
+		switch (type) {
+		case 'S':
+			return value;
+		case 'D':
+			return new Date(Long.parseLong(value));
+		case 'I':
+			return Integer.valueOf(value);
+		case 'L':
+			return Long.valueOf(value);
+		case 'F':
+			return Double.valueOf(value);
+		case 'R':
+			return Float.valueOf(value);
+		case 'B':
+			return Boolean.valueOf(value);
+		default:
+			throw new UncheckedException("无效的键值类型：" + type);
+		}
+	}
+
+	public Boolean getBackward() {
+		return backward;
+	}
+
+	public Object[] getValues() {
+		return values;
+	}
+}
@@ -0,0 +1,21 @@
+package coo.core.hibernate.dao;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 查询结果缓存注解。<br/>
+ * 标注在业务实体类上，使该实体类Dao的getAll、findBy、findUnique方法启用查询结果缓存。
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface QueryCacheable {
+	/** 缓存区域名称，默认为实体类的类名 */
+	String region() default "";
+}
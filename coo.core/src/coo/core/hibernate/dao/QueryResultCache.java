@@ -0,0 +1,251 @@
+package coo.core.hibernate.dao;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 查询结果缓存组件。<br/>
+ * 以查询条件（含参数和排序）作为键缓存查询结果的实体ID列表，命中时按ID列表一次查询获取实体对象，
+ * 缓存项在超过存活时间或该实体类发生新增、更新、删除后失效。<br/>
+ * 只有标注了@QueryCacheable的实体类才会启用缓存，缓存按区域统计命中次数和未命中次数。
+ */
+public class QueryResultCache extends EntityWriteAwareCache {
+	private static final long serialVersionUID = -3982741856012578465L;
+	/** 缓存存活时间（秒），小于等于0时不缓存 */
+	private Integer ttl = 300;
+	/** 每个缓存区域最多缓存的查询数，超过时清空该区域的缓存 */
+	private Integer maxSize = 1000;
+	private ConcurrentMap<String, Region> regions = new ConcurrentHashMap<String, Region>();
+
+	/**
+	 * 判断实体类是否启用了查询结果缓存。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @return 如果实体类标注了@QueryCacheable且缓存存活时间大于0返回true，否则返回false。
+	 */
+	public Boolean isCacheable(Class<?> entityClass) {
+		return ttl > 0 && entityClass.isAnnotationPresent(QueryCacheable.class);
+	}
+
+	/**
+	 * 获取缓存的实体ID列表。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param query
+	 *            查询条件
+	 * @return 返回缓存的实体ID列表，如果没有缓存或已过期返回null。
+	 */
+	public List<Serializable> get(Class<?> entityClass, String query) {
+		if (!isCacheable(entityClass)) {
+			return null;
+		}
+		Region region = getRegion(entityClass);
+		String key = entityClass.getName() + ":" + query;
+		ResultEntry entry = region.entries.get(key);
+		if (entry != null && entry.isExpired()) {
+			region.entries.remove(key);
+			entry = null;
+		}
+		if (entry == null) {
+			region.statistics.missCount.incrementAndGet();
+			return null;
+		}
+		region.statistics.hitCount.incrementAndGet();
+		return entry.ids;
+	}
+
+	/**
+	 * 缓存实体ID列表。查询期间实体类的缓存失效过或当前事务路由到从库时不缓存。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param query
+	 *            查询条件
+	 * @param ids
+	 *            实体ID列表
+	 * @param generation
+	 *            查询前通过getGeneration获取的失效代数
+	 */
+	public void put(Class<?> entityClass, String query,
+			List<Serializable> ids, Long generation) {
+		if (!isCacheable(entityClass) || !isPutAllowed(entityClass, generation)) {
+			return;
+		}
+		Region region = getRegion(entityClass);
+		if (region.entries.size() >= maxSize) {
+			region.entries.clear();
+		}
+		String key = entityClass.getName() + ":" + query;
+		ResultEntry entry = new ResultEntry(Collections.unmodifiableList(ids),
+				System.currentTimeMillis() + ttl * 1000L);
+		region.entries.put(key, entry);
+		// 写入期间发生失效时移除刚写入的缓存项
+		if (!generation.equals(getGeneration(entityClass))) {
+			region.entries.remove(key, entry);
+		}
+	}
+
+	@Override
+	public void invalidate(Class<?> entityClass) {
+		nextGeneration(entityClass);
+		QueryCacheable cacheable = entityClass
+				.getAnnotation(QueryCacheable.class);
+		if (cacheable != null) {
+			Region region = regions.get(getRegionName(entityClass, cacheable));
+			if (region != null) {
+				region.entries.clear();
+			}
+		}
+	}
+
+	/**
+	 * 获取各缓存区域的命中统计。
+	 * 
+	 * @return 返回以区域名称为键的命中统计。
+	 */
+	public Map<String, RegionStatistics> getStatistics() {
+		Map<String, RegionStatistics> statistics = new HashMap<String, RegionStatistics>();
+		for (Map.Entry<String, Region> entry : regions.entrySet()) {
+			statistics.put(entry.getKey(), entry.getValue().statistics);
+		}
+		return statistics;
+	}
+
+	/**
+	 * 获取指定缓存区域的命中统计。
+	 * 
+	 * @param regionName
+	 *            区域名称
+	 * @return 返回指定缓存区域的命中统计，如果区域不存在返回null。
+	 */
+	public RegionStatistics getStatistics(String regionName) {
+		Region region = regions.get(regionName);
+		return region == null ? null : region.statistics;
+	}
+
+	public Integer getTtl() {
+		return ttl;
+	}
+
+	public void setTtl(Integer ttl) {
+		this.ttl = ttl;
+	}
+
+	public Integer getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(Integer maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * 获取实体类的缓存区域，不存在时创建。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @return 返回实体类的缓存区域。
+	 */
+	private Region getRegion(Class<?> entityClass) {
+		String regionName = getRegionName(entityClass,
+				entityClass.getAnnotation(QueryCacheable.class));
+		Region region = regions.get(regionName);
+		if (region == null) {
+			regions.putIfAbsent(regionName, new Region());
+			region = regions.get(regionName);
+		}
+		return region;
+	}
+
+	/**
+	 * 获取实体类的缓存区域名称。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param cacheable
+	 *            查询结果缓存注解
+	 * @return 返回实体类的缓存区域名称。
+	 */
+	private String getRegionName(Class<?> entityClass, QueryCacheable cacheable) {
+		return "".equals(cacheable.region()) ? entityClass.getName()
+				: cacheable.region();
+	}
+
+	/**
+	 * 缓存区域命中统计。
+	 */
+	public static class RegionStatistics {
+		private AtomicLong hitCount = new AtomicLong();
+		private AtomicLong missCount = new AtomicLong();
+
+		public Long getHitCount() {
+			return hitCount.get();
+		}
+
+		public Long getMissCount() {
+			return missCount.get();
+		}
+
+		/**
+		 * 获取命中率。
+		 * 
+		 * @return 返回命中率，没有访问记录时返回0。
+		 */
+		public Double getHitRatio() {
+			long hits = hitCount.get();
+			long total = hits + missCount.get();
+			return total == 0 ? 0D : (double) hits / total;
+		}
+
+		@Override
+		public String toString() {
+			return "命中" + hitCount + "次，未命中" + missCount + "次";
+		}
+	}
+
+	/**
+	 * 缓存区域。
+	 */
+	private static class Region {
+		private ConcurrentMap<String, ResultEntry> entries = new ConcurrentHashMap<String, ResultEntry>();
+		private RegionStatistics statistics = new RegionStatistics();
+	}
+
+	/**
+	 * 查询结果缓存项。
+	 */
+	private static class ResultEntry {
+		private List<Serializable> ids;
+		private Long expireTime;
+
+		/**
+		 * 构造方法。
+		 * 
+		 * @param ids
+		 *            实体ID列表
+		 * @param expireTime
+		 *            过期时间
+		 */
+		ResultEntry(List<Serializable> ids, Long expireTime) {
+			this.ids = ids;
+			this.expireTime = expireTime;
+		}
+
+		/**
+		 * 判断缓存项是否已过期。
+		 * 
+		 * @return 如果已过期返回true，否则返回false。
+		 */
+		Boolean isExpired() {
+			return System.currentTimeMillis() > expireTime;
+		}
+	}
+}
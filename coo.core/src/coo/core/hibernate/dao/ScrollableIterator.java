@@ -0,0 +1,123 @@
+package coo.core.hibernate.dao;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import coo.base.util.Assert;
+
+/**
+ * 基于ScrollableResults的流式迭代器。<br/>
+ * 使用只进游标逐行读取查询结果，每处理指定条数的记录后刷新Session，并将本迭代器返回的这批实体从Session中清除，使遍历大结果集时内存占用保持恒定。
+ * 调用方自行加载的其它实体不受影响。<br/>
+ * 迭代完成后自动关闭游标，提前中止迭代时必须调用close方法关闭游标。
+ * 
+ * @param <T>
+ *            业务实体类型
+ */
+public class ScrollableIterator<T> implements Iterator<T>, Closeable {
+	private ScrollableResults results;
+	private Session session;
+	/** 每处理多少条记录清理一次Session */
+	private Integer clearSize;
+	/** 本批已返回的实体 */
+	private List<Object> batch = new ArrayList<Object>();
+	/** 已读取的记录条数 */
+	private Integer count = 0;
+	/** 是否已预读下一条记录 */
+	private Boolean fetched = false;
+	/** 是否还有下一条记录 */
+	private Boolean hasNext = false;
+	private Boolean closed = false;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param results
+	 *            只进游标结果集
+	 * @param session
+	 *            Hibernate的Session对象
+	 * @param clearSize
+	 *            每处理多少条记录清理一次Session，必须大于0
+	 */
+	public ScrollableIterator(ScrollableResults results, Session session,
+			Integer clearSize) {
+		Assert.isTrue(clearSize != null && clearSize > 0,
+				"流式查询清理Session的记录条数必须大于0。");
+		this.results = results;
+		this.session = session;
+		this.clearSize = clearSize;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (closed) {
+			return false;
+		}
+		if (!fetched) {
+			// 上一批记录处理完毕后再清理Session，保证调用方对其所做的修改已写入数据库
+			if (batch.size() >= clearSize) {
+				clearBatch();
+			}
+			hasNext = results.next();
+			fetched = true;
+			if (!hasNext) {
+				close();
+			}
+		}
+		return hasNext;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		fetched = false;
+		count++;
+		T entity = (T) results.get(0);
+		batch.add(entity);
+		return entity;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("流式迭代器不支持删除操作。");
+	}
+
+	@Override
+	public void close() {
+		if (!closed) {
+			results.close();
+			closed = true;
+		}
+	}
+
+	/**
+	 * 刷新Session并将本批已返回的实体从Session中清除。
+	 */
+	private void clearBatch() {
+		session.flush();
+		for (Object entity : batch) {
+			if (session.contains(entity)) {
+				session.evict(entity);
+			}
+		}
+		batch.clear();
+	}
+
+	/**
+	 * 获取已读取的记录条数。
+	 * 
+	 * @return 返回已读取的记录条数。
+	 */
+	public Integer getCount() {
+		return count;
+	}
+}
@@ -0,0 +1,396 @@
+package coo.core.hibernate.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+import org.hibernate.search.SearchException;
+import org.hibernate.search.backend.AddLuceneWork;
+import org.hibernate.search.backend.IndexingMonitor;
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.backend.UpdateLuceneWork;
+import org.hibernate.search.backend.impl.lucene.LuceneBackendQueueProcessor;
+import org.hibernate.search.backend.spi.BackendQueueProcessor;
+import org.hibernate.search.exception.ErrorHandler;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.spi.WorkerBuildContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import coo.base.util.StringUtils;
+
+/**
+ * 异步批量写入的全文索引后端。<br/>
+ * 事务提交时只将索引变更放入有界队列，由后台线程将多个事务的变更合并后一次写入索引并提交，同一文档的多次变更只保留最后一次。<br/>
+ * 队列已满时提交事务的线程阻塞等待，关闭时将队列中的变更全部写入索引后再关闭。<br/>
+ * 通过hibernate.search.[default|索引名].worker.backend配置为本类的完整类名启用，近实时索引（near-real-time）不支持自定义后端。<br/>
+ * 索引变更写入前搜索不到，需要立即搜索到变更的场景可以调用flush方法等待队列写完。
+ */
+public class AsyncBackendQueueProcessor implements BackendQueueProcessor {
+	/** 队列容量（事务数）的配置项 */
+	public static final String QUEUE_SIZE = "worker.async.queue_size";
+	/** 每批最多写入的索引变更数的配置项 */
+	public static final String BATCH_SIZE = "worker.async.batch_size";
+	/** 每批等待更多变更的最长时间（毫秒）的配置项 */
+	public static final String BATCH_DELAY = "worker.async.batch_delay";
+	/** 关闭时等待队列写完的最长时间（秒）的配置项 */
+	public static final String SHUTDOWN_TIMEOUT = "worker.async.shutdown_timeout";
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private LuceneBackendQueueProcessor delegate = new LuceneBackendQueueProcessor();
+	private ErrorHandler errorHandler;
+	private String indexName;
+	private BlockingQueue<Changeset> queue;
+	private Integer queueSize;
+	private Integer batchSize;
+	private Long batchDelay;
+	private Long shutdownTimeout;
+	private Thread worker;
+	private volatile Boolean closed = false;
+	/** 已入队的事务数 */
+	private AtomicLong receivedChangesets = new AtomicLong();
+	/** 已写入的事务数 */
+	private AtomicLong appliedChangesets = new AtomicLong();
+	/** 已入队的索引变更数 */
+	private AtomicLong receivedWorks = new AtomicLong();
+	/** 合并后实际写入的索引变更数 */
+	private AtomicLong appliedWorks = new AtomicLong();
+	/** 合并掉的索引变更数 */
+	private AtomicLong coalescedWorks = new AtomicLong();
+	/** 写入批次数 */
+	private AtomicLong batches = new AtomicLong();
+	/** 写入失败的批次数 */
+	private AtomicLong failedBatches = new AtomicLong();
+
+	@Override
+	public void initialize(Properties props, WorkerBuildContext context,
+			DirectoryBasedIndexManager indexManager) {
+		indexName = indexManager.getIndexName();
+		errorHandler = context.getErrorHandler();
+		queueSize = getInt(props, QUEUE_SIZE, 1000);
+		batchSize = getInt(props, BATCH_SIZE, 500);
+		batchDelay = getInt(props, BATCH_DELAY, 100).longValue();
+		shutdownTimeout = getInt(props, SHUTDOWN_TIMEOUT, 30).longValue();
+		queue = new ArrayBlockingQueue<Changeset>(queueSize);
+		Properties delegateProps = new Properties(props);
+		delegateProps.setProperty("worker.execution", "sync");
+		delegate.initialize(delegateProps, context, indexManager);
+		worker = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				process();
+			}
+		}, "coo-index-writer-" + indexName);
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	@Override
+	public void close() {
+		closed = true;
+		joinWorker();
+		if (worker.isAlive()) {
+			log.warn("关闭全文索引 " + indexName + " 时等待超时，还有" + queue.size()
+					+ "个事务的索引变更未写入。");
+			worker.interrupt();
+		} else {
+			synchronized (queue) {
+				applyRemaining();
+			}
+		}
+		delegate.close();
+	}
+
+	@Override
+	public void applyWork(List<LuceneWork> workList, IndexingMonitor monitor) {
+		if (workList == null) {
+			throw new IllegalArgumentException("workList should not be null");
+		}
+		if (closed) {
+			// 等待队列中较早的变更写完后再直接写入，避免较早的变更覆盖本次变更
+			joinWorker();
+			synchronized (queue) {
+				if (!worker.isAlive()) {
+					applyRemaining();
+				}
+				delegate.applyWork(workList, monitor);
+			}
+			return;
+		}
+		try {
+			queue.put(new Changeset(workList, monitor));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SearchException("等待全文索引 " + indexName + " 写入队列时被中断。", e);
+		}
+		receivedChangesets.incrementAndGet();
+		receivedWorks.addAndGet(workList.size());
+	}
+
+	@Override
+	public void applyStreamWork(LuceneWork singleOperation,
+			IndexingMonitor monitor) {
+		flush();
+		delegate.applyStreamWork(singleOperation, monitor);
+	}
+
+	@Override
+	public Lock getExclusiveWriteLock() {
+		return delegate.getExclusiveWriteLock();
+	}
+
+	@Override
+	public void indexMappingChanged() {
+		delegate.indexMappingChanged();
+	}
+
+	/**
+	 * 等待当前已入队的索引变更全部写入索引。
+	 */
+	public void flush() {
+		long target = receivedChangesets.get();
+		synchronized (appliedChangesets) {
+			while (appliedChangesets.get() < target && worker.isAlive()) {
+				try {
+					appliedChangesets.wait(batchDelay + 1000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 等待后台写入线程写完队列中的变更并退出，最长等待关闭超时时间。
+	 */
+	private void joinWorker() {
+		try {
+			worker.join(TimeUnit.SECONDS.toMillis(shutdownTimeout));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 写入后台写入线程退出后仍留在队列中的变更，即关闭前最后一刻入队的变更。
+	 */
+	private void applyRemaining() {
+		List<Changeset> changesets = new ArrayList<Changeset>();
+		queue.drainTo(changesets);
+		if (!changesets.isEmpty()) {
+			apply(changesets);
+		}
+	}
+
+	/**
+	 * 后台写入线程的主循环，关闭后写完队列中的变更再退出。
+	 */
+	private void process() {
+		while (!closed || !queue.isEmpty()) {
+			try {
+				Changeset first = queue.poll(batchDelay, TimeUnit.MILLISECONDS);
+				if (first != null) {
+					apply(takeBatch(first));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 从队列中取出一批事务，变更数达到每批上限或等待超过每批等待时间时结束。
+	 * 
+	 * @param first
+	 *            第一个事务
+	 * @return 返回一批事务。
+	 * @throws InterruptedException
+	 *             等待被中断时抛出
+	 */
+	private List<Changeset> takeBatch(Changeset first)
+			throws InterruptedException {
+		List<Changeset> changesets = new ArrayList<Changeset>();
+		changesets.add(first);
+		int workCount = first.works.size();
+		long deadline = System.currentTimeMillis() + batchDelay;
+		while (workCount < batchSize) {
+			long remain = deadline - System.currentTimeMillis();
+			Changeset changeset = closed || remain <= 0 ? queue.poll() : queue
+					.poll(remain, TimeUnit.MILLISECONDS);
+			if (changeset == null) {
+				break;
+			}
+			changesets.add(changeset);
+			workCount += changeset.works.size();
+		}
+		return changesets;
+	}
+
+	/**
+	 * 将一批事务的索引变更合并后写入索引。
+	 * 
+	 * @param changesets
+	 *            一批事务
+	 */
+	private void apply(List<Changeset> changesets) {
+		List<LuceneWork> works = coalesce(changesets);
+		try {
+			delegate.applyWork(works, null);
+			appliedWorks.addAndGet(works.size());
+			for (Changeset changeset : changesets) {
+				if (changeset.monitor != null) {
+					changeset.monitor.documentsAdded(changeset.getAddedCount());
+				}
+			}
+		} catch (Exception e) {
+			failedBatches.incrementAndGet();
+			errorHandler.handleException("批量写入全文索引 " + indexName + " 时发生异常，"
+					+ works.size() + "个索引变更未写入。", e);
+		} finally {
+			batches.incrementAndGet();
+			synchronized (appliedChangesets) {
+				appliedChangesets.addAndGet(changesets.size());
+				appliedChangesets.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * 合并索引变更，同一文档的多次变更只保留最后一次。<br/>
+	 * 先前有变更的文档再次添加时改为更新，避免索引中出现重复文档；清空、优化等不针对单个文档的变更保持原有顺序。
+	 * 
+	 * @param changesets
+	 *            一批事务
+	 * @return 返回合并后的索引变更。
+	 */
+	private List<LuceneWork> coalesce(List<Changeset> changesets) {
+		List<LuceneWork> works = new ArrayList<LuceneWork>();
+		Map<String, LuceneWork> pending = new LinkedHashMap<String, LuceneWork>();
+		for (Changeset changeset : changesets) {
+			for (LuceneWork work : changeset.works) {
+				if (work.getId() == null) {
+					works.addAll(pending.values());
+					pending.clear();
+					works.add(work);
+					continue;
+				}
+				String key = work.getEntityClass().getName() + "#"
+						+ work.getIdInString();
+				if (pending.remove(key) != null) {
+					coalescedWorks.incrementAndGet();
+					if (work instanceof AddLuceneWork) {
+						work = new UpdateLuceneWork(work.getId(),
+								work.getIdInString(), work.getEntityClass(),
+								work.getDocument(),
+								work.getFieldToAnalyzerMap());
+					}
+				}
+				pending.put(key, work);
+			}
+		}
+		works.addAll(pending.values());
+		return works;
+	}
+
+	/**
+	 * 读取整数配置项。
+	 * 
+	 * @param props
+	 *            配置
+	 * @param key
+	 *            配置项
+	 * @param defaultValue
+	 *            默认值
+	 * @return 返回整数配置值。
+	 */
+	private Integer getInt(Properties props, String key, Integer defaultValue) {
+		String value = props.getProperty(key);
+		if (StringUtils.isBlank(value)) {
+			return defaultValue;
+		}
+		return Integer.valueOf(value.trim());
+	}
+
+	public String getIndexName() {
+		return indexName;
+	}
+
+	/**
+	 * 获取队列中等待写入的事务数。
+	 * 
+	 * @return 返回队列中等待写入的事务数。
+	 */
+	public Integer getQueueDepth() {
+		return queue.size();
+	}
+
+	public Integer getQueueSize() {
+		return queueSize;
+	}
+
+	public Long getReceivedChangesets() {
+		return receivedChangesets.get();
+	}
+
+	public Long getAppliedChangesets() {
+		return appliedChangesets.get();
+	}
+
+	public Long getReceivedWorks() {
+		return receivedWorks.get();
+	}
+
+	public Long getAppliedWorks() {
+		return appliedWorks.get();
+	}
+
+	public Long getCoalescedWorks() {
+		return coalescedWorks.get();
+	}
+
+	public Long getBatches() {
+		return batches.get();
+	}
+
+	public Long getFailedBatches() {
+		return failedBatches.get();
+	}
+
+	/**
+	 * 一个事务提交的索引变更。
+	 */
+	private static class Changeset {
+		private List<LuceneWork> works;
+		private IndexingMonitor monitor;
+
+		private Changeset(List<LuceneWork> works, IndexingMonitor monitor) {
+			this.works = works;
+			this.monitor = monitor;
+		}
+
+		/**
+		 * 获取添加文档的变更数。
+		 * 
+		 * @return 返回添加文档的变更数。
+		 */
+		private Long getAddedCount() {
+			long count = 0;
+			for (LuceneWork work : works) {
+				if (work instanceof AddLuceneWork
+						|| work instanceof UpdateLuceneWork) {
+					count++;
+				}
+			}
+			return count;
+		}
+	}
+}
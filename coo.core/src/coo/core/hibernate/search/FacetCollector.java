@@ -0,0 +1,218 @@
+package coo.core.hibernate.search;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.index.TermEnum;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.Scorer;
+
+/**
+ * 分面统计收集器。<br/>
+ * 包装收集命中记录的收集器，在同一次搜索中按分面字段的索引词统计命中记录数。
+ * 分面字段可以是多值字段（如IEnumListValueBridge索引的字段），每个索引段的“文档-索引词”对应关系在首次统计时生成并缓存，索引段关闭后自动释放。
+ */
+public class FacetCollector extends Collector {
+	/** 各索引段的分面字段缓存 */
+	private static final Map<Object, Map<String, SegmentField>> CACHE = Collections
+			.synchronizedMap(new WeakHashMap<Object, Map<String, SegmentField>>());
+	private Collector delegate;
+	private List<String> fieldNames;
+	/** 各分面字段在全部索引段上的统计结果 */
+	private Map<String, Map<String, Integer>> counts = new LinkedHashMap<String, Map<String, Integer>>();
+	/** 当前索引段的分面字段 */
+	private SegmentField[] segmentFields;
+	/** 当前索引段各分面字段按索引词序号的统计结果 */
+	private int[][] segmentCounts;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param delegate
+	 *            收集命中记录的收集器
+	 * @param fieldNames
+	 *            分面字段
+	 */
+	public FacetCollector(Collector delegate, List<String> fieldNames) {
+		this.delegate = delegate;
+		this.fieldNames = fieldNames;
+		for (String fieldName : fieldNames) {
+			counts.put(fieldName, new HashMap<String, Integer>());
+		}
+	}
+
+	@Override
+	public void setScorer(Scorer scorer) throws IOException {
+		delegate.setScorer(scorer);
+	}
+
+	@Override
+	public void collect(int doc) throws IOException {
+		delegate.collect(doc);
+		for (int i = 0; i < segmentFields.length; i++) {
+			SegmentField segmentField = segmentFields[i];
+			for (int j = segmentField.offsets[doc]; j < segmentField.offsets[doc + 1]; j++) {
+				segmentCounts[i][segmentField.ords[j]]++;
+			}
+		}
+	}
+
+	@Override
+	public void setNextReader(IndexReader reader, int docBase)
+			throws IOException {
+		delegate.setNextReader(reader, docBase);
+		mergeSegmentCounts();
+		segmentFields = new SegmentField[fieldNames.size()];
+		segmentCounts = new int[fieldNames.size()][];
+		for (int i = 0; i < fieldNames.size(); i++) {
+			segmentFields[i] = getSegmentField(reader, fieldNames.get(i));
+			segmentCounts[i] = new int[segmentFields[i].terms.length];
+		}
+	}
+
+	@Override
+	public boolean acceptsDocsOutOfOrder() {
+		return delegate.acceptsDocsOutOfOrder();
+	}
+
+	/**
+	 * 获取统计结果。
+	 * 
+	 * @return 返回各分面字段的“索引词-命中记录数”统计结果，未命中的索引词不包含在内。
+	 */
+	public Map<String, Map<String, Integer>> getCounts() {
+		mergeSegmentCounts();
+		return counts;
+	}
+
+	/**
+	 * 将当前索引段的统计结果合并到总的统计结果中。
+	 */
+	private void mergeSegmentCounts() {
+		if (segmentFields == null) {
+			return;
+		}
+		for (int i = 0; i < segmentFields.length; i++) {
+			Map<String, Integer> fieldCounts = counts.get(fieldNames.get(i));
+			for (int ord = 0; ord < segmentCounts[i].length; ord++) {
+				if (segmentCounts[i][ord] > 0) {
+					String term = segmentFields[i].terms[ord];
+					Integer count = fieldCounts.get(term);
+					fieldCounts.put(term, (count == null ? 0 : count)
+							+ segmentCounts[i][ord]);
+				}
+			}
+		}
+		segmentFields = null;
+		segmentCounts = null;
+	}
+
+	/**
+	 * 获取索引段的分面字段，不存在时生成并缓存。
+	 * 
+	 * @param reader
+	 *            索引段
+	 * @param fieldName
+	 *            字段名
+	 * @return 返回索引段的分面字段。
+	 * @throws IOException
+	 *             读取索引失败时抛出
+	 */
+	private SegmentField getSegmentField(IndexReader reader, String fieldName)
+			throws IOException {
+		Map<String, SegmentField> segmentFields;
+		synchronized (CACHE) {
+			segmentFields = CACHE.get(reader.getCoreCacheKey());
+			if (segmentFields == null) {
+				segmentFields = new HashMap<String, SegmentField>();
+				CACHE.put(reader.getCoreCacheKey(), segmentFields);
+			}
+		}
+		synchronized (segmentFields) {
+			SegmentField segmentField = segmentFields.get(fieldName);
+			if (segmentField == null) {
+				segmentField = new SegmentField(reader, fieldName);
+				segmentFields.put(fieldName, segmentField);
+			}
+			return segmentField;
+		}
+	}
+
+	/**
+	 * 索引段中分面字段的“文档-索引词”对应关系。<br/>
+	 * 文档doc的索引词序号保存在ords[offsets[doc]]到ords[offsets[doc + 1] - 1]中。
+	 */
+	private static class SegmentField {
+		private String[] terms;
+		private int[] offsets;
+		private int[] ords;
+
+		/**
+		 * 遍历索引段中字段的全部索引词生成对应关系。
+		 * 
+		 * @param reader
+		 *            索引段
+		 * @param fieldName
+		 *            字段名
+		 * @throws IOException
+		 *             读取索引失败时抛出
+		 */
+		private SegmentField(IndexReader reader, String fieldName)
+				throws IOException {
+			int maxDoc = reader.maxDoc();
+			List<String> termList = new ArrayList<String>();
+			List<int[]> termDocList = new ArrayList<int[]>();
+			int[] docCounts = new int[maxDoc];
+			TermEnum termEnum = reader.terms(new Term(fieldName, ""));
+			TermDocs termDocs = reader.termDocs();
+			try {
+				do {
+					Term term = termEnum.term();
+					if (term == null || !fieldName.equals(term.field())) {
+						break;
+					}
+					int[] docs = new int[termEnum.docFreq()];
+					int size = 0;
+					termDocs.seek(termEnum);
+					while (termDocs.next()) {
+						if (size == docs.length) {
+							int[] grown = new int[size * 2 + 1];
+							System.arraycopy(docs, 0, grown, 0, size);
+							docs = grown;
+						}
+						docs[size++] = termDocs.doc();
+						docCounts[termDocs.doc()]++;
+					}
+					int[] trimmed = new int[size];
+					System.arraycopy(docs, 0, trimmed, 0, size);
+					termList.add(term.text());
+					termDocList.add(trimmed);
+				} while (termEnum.next());
+			} finally {
+				termDocs.close();
+				termEnum.close();
+			}
+			terms = termList.toArray(new String[] {});
+			offsets = new int[maxDoc + 1];
+			for (int doc = 0; doc < maxDoc; doc++) {
+				offsets[doc + 1] = offsets[doc] + docCounts[doc];
+			}
+			ords = new int[offsets[maxDoc]];
+			int[] positions = new int[maxDoc];
+			for (int ord = 0; ord < termDocList.size(); ord++) {
+				for (int doc : termDocList.get(ord)) {
+					ords[offsets[doc] + positions[doc]++] = ord;
+				}
+			}
+		}
+	}
+}
@@ -1,45 +1,89 @@
 package coo.core.hibernate.search;
 
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.MapFieldSelector;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.queryParser.ParseException;
 import org.apache.lucene.queryParser.QueryParser;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.FieldCacheRangeFilter;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.NumericRangeFilter;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryWrapperFilter;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopDocsCollector;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopScoreDocCollector;
 import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.util.Version;
 import org.hibernate.Criteria;
 import org.hibernate.HibernateException;
+import org.hibernate.search.FullTextFilter;
 import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
+import org.hibernate.search.ProjectionConstants;
 import org.hibernate.search.annotations.Analyze;
+import org.hibernate.search.annotations.DocumentId;
+import org.hibernate.search.annotations.FieldBridge;
 import org.hibernate.search.annotations.IndexedEmbedded;
+import org.hibernate.search.annotations.Store;
+import org.hibernate.search.bridge.spi.ConversionContext;
+import org.hibernate.search.bridge.util.impl.ContextualExceptionBridgeHelper;
+import org.hibernate.search.engine.impl.DocumentBuilderHelper;
+import org.hibernate.search.engine.spi.SearchFactoryImplementor;
+import org.hibernate.search.indexes.IndexReaderAccessor;
+import org.hibernate.search.indexes.spi.IndexManager;
+import org.hibernate.search.util.impl.ContextHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import coo.base.model.Facet;
+import coo.base.model.FacetPage;
 import coo.base.util.Assert;
 import coo.base.util.BeanUtils;
 import coo.base.util.StringUtils;
+import coo.core.model.IEnum;
+import coo.core.util.IEnumUtils;
 
 /**
  * Hibernate Search全文搜索查询条件构造器。
  */
 public class FullTextCriteria {
+	/** 匹配任意记录的查询对象 */
+	private static final Query MATCH_ALL_QUERY = new MatchAllDocsQuery();
 	private Logger log = LoggerFactory.getLogger(getClass());
 	private FullTextSession session;
 	private Class<?> clazz;
@@ -47,16 +91,32 @@ public class FullTextCriteria {
 	private String keyword;
 	/** 待搜索的字段 */
 	private Map<String, Analyze> searchFields = new LinkedHashMap<String, Analyze>();
+	/** 使用N-Gram桥接器索引的字段 */
+	private Set<String> ngramFields = new HashSet<String>();
+	/** 使用数值桥接器索引的字段 */
+	private Set<String> numericFields = new HashSet<String>();
+	/** 在索引中存储了字段值的字段 */
+	private Set<String> storedFields = new LinkedHashSet<String>();
+	/** 投影字段 */
+	private List<String> projectionFields = new ArrayList<String>();
+	/** 分面统计字段 */
+	private List<String> facetFields = new ArrayList<String>();
 	/** 排序字段 */
 	private List<SortField> sortFields = new ArrayList<SortField>();
 	/** 过滤字段 */
 	private Map<String, String> filterFields = new HashMap<String, String>();
+	/** 范围过滤条件 */
+	private Map<String, Filter> rangeFilters = new LinkedHashMap<String, Filter>();
 	/** 附加Lucene查询条件 */
 	private Query luceneQuery;
 	/** 附加Lucene查询条件的与或关系 */
 	private Occur luceneQueryOccur;
 	private Filter filter;
+	/** 启用的FullTextFilter及其参数 */
+	private Map<String, Map<String, Object>> fullTextFilters = new LinkedHashMap<String, Map<String, Object>>();
 	private Criteria criteriaQuery;
+	/** 查询计划和过滤器缓存 */
+	private FullTextQueryCache queryCache;
 
 	/**
 	 * 构造方法。
@@ -72,6 +132,22 @@ public class FullTextCriteria {
 		initSearchFields();
 	}
 
+	/**
+	 * 构造方法。
+	 * 
+	 * @param session
+	 *            Hibernate全文搜索Session
+	 * @param clazz
+	 *            实体class
+	 * @param queryCache
+	 *            查询计划和过滤器缓存
+	 */
+	public FullTextCriteria(FullTextSession session, Class<?> clazz,
+			FullTextQueryCache queryCache) {
+		this(session, clazz);
+		this.queryCache = queryCache;
+	}
+
 	/**
 	 * 设置全文搜索关键字。
 	 * 
@@ -101,6 +177,12 @@ public class FullTextCriteria {
 			Analyze analyze = field.getAnnotation(
 					org.hibernate.search.annotations.Field.class).analyze();
 			searchFields.put(fieldName, analyze);
+			if (isNGramField(field)) {
+				ngramFields.add(fieldName);
+			}
+			if (isNumericField(field)) {
+				numericFields.add(fieldName);
+			}
 		}
 	}
 
@@ -128,6 +210,68 @@ public class FullTextCriteria {
 		filterFields.put(fieldName, fieldValue.toString());
 	}
 
+	/**
+	 * 增加范围过滤条件，包含起止值。<br/>
+	 * 字段必须使用NumericBridge（Integer/Long/Float/Double）或NumericDateBridge（Date）索引，过滤在索引内完成，不需要回查数据库。
+	 * 同一字段多次设置时以最后一次为准。过滤结果不缓存。
+	 * 
+	 * @param fieldName
+	 *            字段名
+	 * @param from
+	 *            起始值，为null时不限
+	 * @param to
+	 *            截止值，为null时不限
+	 */
+	public void addRangeFilter(String fieldName, Object from, Object to) {
+		addRangeFilter(fieldName, from, to, false);
+	}
+
+	/**
+	 * 增加范围过滤条件，包含起止值。<br/>
+	 * 固定且反复使用的范围（如固定的年龄段）可以设置cacheable为true，过滤结果按索引段缓存；随请求变化的范围（如用户输入的时间段）不应缓存。
+	 * 
+	 * @param fieldName
+	 *            字段名
+	 * @param from
+	 *            起始值，为null时不限
+	 * @param to
+	 *            截止值，为null时不限
+	 * @param cacheable
+	 *            是否缓存过滤结果
+	 */
+	public void addRangeFilter(String fieldName, Object from, Object to,
+			Boolean cacheable) {
+		Object value = from != null ? from : to;
+		Assert.notNull(value, "范围过滤字段 " + fieldName + " 的起止值不能同时为空。");
+		Filter rangeFilter;
+		if (value instanceof Integer) {
+			rangeFilter = NumericRangeFilter.newIntRange(fieldName,
+					(Integer) from, (Integer) to, true, true);
+		} else if (value instanceof Long) {
+			rangeFilter = NumericRangeFilter.newLongRange(fieldName,
+					(Long) from, (Long) to, true, true);
+		} else if (value instanceof Float) {
+			rangeFilter = NumericRangeFilter.newFloatRange(fieldName,
+					(Float) from, (Float) to, true, true);
+		} else if (value instanceof Double) {
+			rangeFilter = NumericRangeFilter.newDoubleRange(fieldName,
+					(Double) from, (Double) to, true, true);
+		} else if (value instanceof Date) {
+			rangeFilter = NumericRangeFilter.newLongRange(fieldName,
+					from == null ? null : ((Date) from).getTime(),
+					to == null ? null : ((Date) to).getTime(), true, true);
+		} else {
+			throw new HibernateException("范围过滤不支持的字段值类型："
+					+ value.getClass());
+		}
+		if (cacheable) {
+			rangeFilter = getCachedFilter("range:"
+					+ value.getClass().getSimpleName() + ":" + rangeFilter,
+					rangeFilter);
+		}
+		rangeFilters.put(fieldName, rangeFilter);
+	}
+
 	/**
 	 * 设置Lucene的Query过滤条件。
 	 * 
@@ -167,6 +311,22 @@ public class FullTextCriteria {
 		sortFields.add(new SortField(fieldName, type, true));
 	}
 
+	/**
+	 * 增加分面统计字段。<br/>
+	 * 按字段的索引词统计命中记录数，适用于不分词或索引值本身即为统计值的字段，如IEnumValueBridge/IEnumListValueBridge索引的枚举字段、
+	 * 关联对象的ID字段（“属性名.id”）。枚举字段的统计项显示文本为枚举的text属性。
+	 * 
+	 * @param fieldNames
+	 *            字段名称
+	 */
+	public void addFacet(String... fieldNames) {
+		for (String fieldName : fieldNames) {
+			if (!facetFields.contains(fieldName)) {
+				facetFields.add(fieldName);
+			}
+		}
+	}
+
 	/**
 	 * 设置Lucene的Filter过滤器。
 	 * 
@@ -177,10 +337,25 @@ public class FullTextCriteria {
 		this.filter = filter;
 	}
 
+	/**
+	 * 启用实体类上通过@FullTextFilterDef声明的FullTextFilter。<br/>
+	 * 声明为ShardSensitiveOnlyFilter的过滤器只用于分片策略选择要搜索的分片，如按月分片索引的{@link MonthShardingStrategy#FILTER_NAME}。<br/>
+	 * FullTextFilter只作用于FullTextQuery，searchAfter和分面统计搜索不支持。
+	 * 
+	 * @param name
+	 *            过滤器名称
+	 * @param parameters
+	 *            过滤器参数
+	 */
+	public void enableFullTextFilter(String name, Map<String, Object> parameters) {
+		fullTextFilters.put(name, parameters);
+	}
+
 	/**
 	 * 设置Hibernate的Criteria查询条件。<br/>
 	 * 该方法应谨慎使用，Criteria查询条件只作用于全文搜索出来的结果集上，不会改变全文搜索的搜索结果。<br/>
-	 * 这将可能引起全文搜索的总记录条数与经Criteria查询条件过滤后的结果集的总记录数不一致。
+	 * 这将可能引起全文搜索的总记录条数与经Criteria查询条件过滤后的结果集的总记录数不一致。<br/>
+	 * searchAfter、分面统计搜索和投影搜索只在索引中进行，设置了Criteria查询条件时会抛出异常。
 	 * 
 	 * @param criteria
 	 *            Hibernate的Criteria查询条件
@@ -189,6 +364,47 @@ public class FullTextCriteria {
 		this.criteriaQuery = criteria;
 	}
 
+	/**
+	 * 设置投影字段。<br/>
+	 * 投影字段必须在@Field中声明store = Store.YES，并且使用双向桥接器（TwoWayFieldBridge/TwoWayStringBridge），
+	 * 关联对象的字段使用“属性名.字段名”的形式指定。未设置投影字段时投影所有存储了字段值的字段。<br/>
+	 * 标注在getter方法上的存储字段也可以投影，投影值填充到实体中与其同名的属性中。
+	 * 
+	 * @param fieldNames
+	 *            字段名称
+	 */
+	public void setProjection(String... fieldNames) {
+		for (String fieldName : fieldNames) {
+			if (!storedFields.contains(fieldName)) {
+				throw new HibernateException("全文搜索时指定的投影字段 " + fieldName
+						+ " 必须在索引中存储字段值");
+			}
+		}
+		projectionFields = new ArrayList<String>(Arrays.asList(fieldNames));
+	}
+
+	/**
+	 * 生成Hibernate的FullTextQuery投影搜索对象。<br/>
+	 * 搜索结果直接由索引中存储的字段值构造，不会访问数据库。结果为只填充了实体ID和投影字段的游离实体对象，只能用于列表展示等只读场景。
+	 * 
+	 * @return 返回Hibernate的FullTextQuery投影搜索对象。
+	 */
+	public FullTextQuery generateProjectionQuery() {
+		if (criteriaQuery != null) {
+			throw new HibernateException("投影搜索不能设置Hibernate的Criteria查询条件");
+		}
+		List<String> fields = projectionFields.isEmpty() ? new ArrayList<String>(
+				storedFields) : projectionFields;
+		List<String> projections = new ArrayList<String>();
+		projections.add(ProjectionConstants.ID);
+		projections.addAll(fields);
+		FullTextQuery fullTextQuery = generateQuery();
+		fullTextQuery.setProjection(projections.toArray(new String[] {}));
+		fullTextQuery.setResultTransformer(new ProjectionResultTransformer(
+				clazz));
+		return fullTextQuery;
+	}
+
 	/**
 	 * 生成Hibernate的FullTextQuery全文搜索对象。
 	 * 
@@ -210,12 +426,153 @@ public class FullTextCriteria {
 		if (filter != null) {
 			fullTextQuery.setFilter(filter);
 		}
+		for (Entry<String, Map<String, Object>> fullTextFilter : fullTextFilters
+				.entrySet()) {
+			FullTextFilter enabledFilter = fullTextQuery
+					.enableFullTextFilter(fullTextFilter.getKey());
+			for (Entry<String, Object> parameter : fullTextFilter.getValue()
+					.entrySet()) {
+				enabledFilter.setParameter(parameter.getKey(),
+						parameter.getValue());
+			}
+		}
 		if (criteriaQuery != null) {
 			fullTextQuery.setCriteriaQuery(criteriaQuery);
 		}
 		return fullTextQuery;
 	}
 
+	/**
+	 * 检查是否可以只在索引中搜索。searchAfter和分面统计搜索直接使用Lucene搜索索引，不能附加Hibernate的Criteria查询条件，
+	 * 也不会应用通过enableFullTextFilter启用的FullTextFilter。
+	 * 
+	 * @throws HibernateException
+	 *             设置了Criteria查询条件或启用了FullTextFilter时抛出
+	 */
+	public void checkIndexOnly() {
+		if (criteriaQuery != null) {
+			throw new HibernateException(
+					"searchAfter和分面统计搜索只在索引中进行，不能设置Hibernate的Criteria查询条件");
+		}
+		if (!fullTextFilters.isEmpty()) {
+			throw new HibernateException(
+					"searchAfter和分面统计搜索只在索引中进行，不能启用FullTextFilter，请使用setFilter设置Lucene的Filter过滤器");
+		}
+	}
+
+	/**
+	 * 以searchAfter方式进行全文搜索。<br/>
+	 * 在当前排序字段之后追加实体ID作为唯一排序键，根据上一次搜索最后一条命中记录的排序值构造定位条件，
+	 * 只收集定位之后的size条命中记录，收集代价与翻页深度无关。
+	 * 
+	 * @param after
+	 *            上一次搜索最后一条命中记录的排序值（最后一个值为实体ID），为null时从头开始搜索
+	 * @param backward
+	 *            是否反向搜索
+	 * @param size
+	 *            获取的命中记录数
+	 * @return 返回命中记录的排序值集合，每条命中记录的排序值中最后一个值为实体ID。
+	 */
+	public List<Object[]> searchAfter(Object[] after, Boolean backward,
+			Integer size) {
+		checkIndexOnly();
+		List<SortField> keys = new ArrayList<SortField>();
+		for (SortField sortField : sortFields) {
+			if (!searchFields.containsKey(sortField.getField())) {
+				throw new HibernateException("全文搜索时指定的排序字段 "
+						+ sortField.getField() + " 必须包含在搜索字段中");
+			}
+			keys.add(new SortField(sortField.getField(), sortField.getType(),
+					sortField.getReverse() ^ backward));
+		}
+		keys.add(new SortField(getIdFieldName(), SortField.STRING, backward));
+		Query query = generateIndexOnlyQuery(generateLuceneQuery());
+		if (after != null) {
+			if (after.length != keys.size()) {
+				throw new HibernateException("searchAfter定位值与排序字段的数量不一致");
+			}
+			BooleanQuery seekQuery = new BooleanQuery();
+			seekQuery.add(query, Occur.MUST);
+			seekQuery.add(generateSeekQuery(keys, after), Occur.MUST);
+			query = seekQuery;
+		}
+
+		IndexReaderAccessor accessor = session.getSearchFactory()
+				.getIndexReaderAccessor();
+		IndexReader reader = accessor.open(clazz);
+		try {
+			IndexSearcher searcher = new IndexSearcher(reader);
+			TopDocs topDocs = searcher.search(query, filter, size, new Sort(
+					keys.toArray(new SortField[] {})));
+			List<Object[]> hits = new ArrayList<Object[]>();
+			for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+				hits.add(((FieldDoc) scoreDoc).fields);
+			}
+			return hits;
+		} catch (IOException e) {
+			throw new HibernateException("执行searchAfter全文搜索时发生异常", e);
+		} finally {
+			accessor.close(reader);
+		}
+	}
+
+	/**
+	 * 进行带分面统计的分页全文搜索。<br/>
+	 * 当前页的命中记录、命中总数和各分面字段的统计结果由同一次Lucene搜索得到。
+	 * 
+	 * @param pageNo
+	 *            待获取的页数
+	 * @param pageSize
+	 *            每页的记录数
+	 * @return 返回带分面统计的分页对象，其中的内容为当前页命中记录的实体ID。
+	 */
+	public FacetPage<Serializable> searchFacetPage(Integer pageNo, Integer pageSize) {
+		checkIndexOnly();
+		Integer firstResult = (pageNo < 1 ? 0 : pageNo - 1) * pageSize;
+		IndexReaderAccessor accessor = session.getSearchFactory()
+				.getIndexReaderAccessor();
+		IndexReader reader = accessor.open(clazz);
+		try {
+			IndexSearcher searcher = new IndexSearcher(reader);
+			TopDocsCollector<?> topDocsCollector = createTopDocsCollector(firstResult
+					+ pageSize);
+			FacetCollector facetCollector = new FacetCollector(
+					topDocsCollector, facetFields);
+			searcher.search(generateIndexOnlyQuery(generateLuceneQuery()),
+					filter, facetCollector);
+			int total = topDocsCollector.getTotalHits();
+			if (total < 1) {
+				return new FacetPage<Serializable>(pageSize);
+			}
+			FacetPage<Serializable> page = new FacetPage<Serializable>(total,
+					pageNo, pageSize);
+			// 请求的页数超出总页数时取最后一页，收集的命中记录数足以覆盖最后一页
+			ScoreDoc[] scoreDocs = topDocsCollector.topDocs(
+					(page.getNumber() - 1) * pageSize, pageSize).scoreDocs;
+			SearchFactoryImplementor searchFactory = ContextHelper
+					.getSearchFactory(session);
+			FieldSelector idSelector = new MapFieldSelector(getIdFieldName());
+			ConversionContext conversionContext = new ContextualExceptionBridgeHelper();
+			for (ScoreDoc scoreDoc : scoreDocs) {
+				page.getContents().add(
+						DocumentBuilderHelper.getDocumentId(searchFactory, clazz,
+								searcher.doc(scoreDoc.doc, idSelector),
+								conversionContext));
+			}
+			for (Entry<String, Map<String, Integer>> fieldCounts : facetCollector
+					.getCounts().entrySet()) {
+				page.getFacets().put(fieldCounts.getKey(),
+						createFacets(fieldCounts.getKey(),
+								fieldCounts.getValue()));
+			}
+			return page;
+		} catch (IOException e) {
+			throw new HibernateException("执行分面统计全文搜索时发生异常", e);
+		} finally {
+			accessor.close(reader);
+		}
+	}
+
 	/**
 	 * 生成多字段查询对象。
 	 * 
@@ -230,7 +587,15 @@ public class FullTextCriteria {
 		Assert.notEmpty(fields, "必须指定查询的字段。");
 		BooleanQuery multiFieldWildcardQuery = new BooleanQuery();
 		for (Entry<String, Analyze> field : fields.entrySet()) {
-			if (field.getValue() == Analyze.NO) {
+			// 数值字段的索引词为Trie编码，关键字不可能匹配
+			if (numericFields.contains(field.getKey())) {
+				continue;
+			}
+			if (ngramFields.contains(field.getKey())) {
+				multiFieldWildcardQuery.add(NGramAnalyzer.createQuery(
+						field.getKey() + NGramBridge.FIELD_SUFFIX,
+						unescape(query)), Occur.SHOULD);
+			} else if (field.getValue() == Analyze.NO) {
 				Term term = new Term(field.getKey(), "*" + query + "*");
 				WildcardQuery fuzzyQuery = new WildcardQuery(term);
 				multiFieldWildcardQuery.add(fuzzyQuery, Occur.SHOULD);
@@ -269,25 +634,322 @@ public class FullTextCriteria {
 		return generateMultiFieldQuery(query, fields);
 	}
 
+	/**
+	 * 生成直接搜索索引时使用的查询对象。<br/>
+	 * 实体类的索引与其它实体类共享时，追加只匹配实体类及其子类文档的条件，该条件不参与评分。
+	 * 
+	 * @param query
+	 *            查询对象
+	 * @return 返回直接搜索索引时使用的查询对象。
+	 */
+	private Query generateIndexOnlyQuery(Query query) {
+		SearchFactoryImplementor searchFactory = ContextHelper
+				.getSearchFactory(session);
+		Set<Class<?>> types = searchFactory
+				.getIndexedTypesPolymorphic(new Class<?>[] { clazz });
+		Set<Class<?>> containedTypes = new HashSet<Class<?>>();
+		for (Class<?> type : types) {
+			for (IndexManager indexManager : searchFactory
+					.getIndexBindingForEntity().get(type).getIndexManagers()) {
+				containedTypes.addAll(indexManager.getContainedTypes());
+			}
+		}
+		if (types.containsAll(containedTypes)) {
+			return query;
+		}
+		BooleanQuery classQuery = new BooleanQuery();
+		for (Class<?> type : types) {
+			classQuery.add(new TermQuery(new Term(
+					ProjectionConstants.OBJECT_CLASS, type.getName())),
+					Occur.SHOULD);
+		}
+		ConstantScoreQuery classFilterQuery = new ConstantScoreQuery(classQuery);
+		classFilterQuery.setBoost(0f);
+		BooleanQuery indexOnlyQuery = new BooleanQuery();
+		indexOnlyQuery.add(query, Occur.MUST);
+		indexOnlyQuery.add(classFilterQuery, Occur.MUST);
+		return indexOnlyQuery;
+	}
+
+	/**
+	 * 生成定位到指定排序值之后的查询对象。<br/>
+	 * 对于排序键k1...kn，定位条件为：k1在v1之后，或k1等于v1且k2在v2之后，依此类推。
+	 * 
+	 * @param keys
+	 *            排序键
+	 * @param values
+	 *            排序值
+	 * @return 返回定位查询对象。
+	 */
+	private Query generateSeekQuery(List<SortField> keys, Object[] values) {
+		BooleanQuery seekQuery = new BooleanQuery();
+		for (int i = 0; i < keys.size(); i++) {
+			BooleanQuery clause = new BooleanQuery();
+			for (int j = 0; j < i; j++) {
+				clause.add(new ConstantScoreQuery(createRangeFilter(keys.get(j),
+						values[j], values[j], true)), Occur.MUST);
+			}
+			SortField key = keys.get(i);
+			Object lower = key.getReverse() ? null : values[i];
+			Object upper = key.getReverse() ? values[i] : null;
+			clause.add(new ConstantScoreQuery(createRangeFilter(key, lower,
+					upper, false)), Occur.MUST);
+			seekQuery.add(clause, Occur.SHOULD);
+		}
+		return seekQuery;
+	}
+
+	/**
+	 * 创建基于FieldCache的范围过滤器，与排序使用相同的FieldCache取值。
+	 * 
+	 * @param key
+	 *            排序键
+	 * @param lower
+	 *            下限，为null时不限
+	 * @param upper
+	 *            上限，为null时不限
+	 * @param inclusive
+	 *            是否包含上下限
+	 * @return 返回范围过滤器。
+	 */
+	private Filter createRangeFilter(SortField key, Object lower, Object upper,
+			Boolean inclusive) {
+		String field = key.getField();
+		switch (key.getType()) {
+		case SortField.STRING:
+		case SortField.STRING_VAL:
+			return FieldCacheRangeFilter.newStringRange(field, (String) lower,
+					(String) upper, inclusive, inclusive);
+		case SortField.INT:
+			return FieldCacheRangeFilter.newIntRange(field, (Integer) lower,
+					(Integer) upper, inclusive, inclusive);
+		case SortField.LONG:
+			return FieldCacheRangeFilter.newLongRange(field, (Long) lower,
+					(Long) upper, inclusive, inclusive);
+		case SortField.FLOAT:
+			return FieldCacheRangeFilter.newFloatRange(field, (Float) lower,
+					(Float) upper, inclusive, inclusive);
+		case SortField.DOUBLE:
+			return FieldCacheRangeFilter.newDoubleRange(field, (Double) lower,
+					(Double) upper, inclusive, inclusive);
+		default:
+			throw new HibernateException("searchAfter不支持的排序字段类型：" + field);
+		}
+	}
+
+	/**
+	 * 按当前排序字段创建收集命中记录的收集器，未设置排序字段时按相关度排序。
+	 * 
+	 * @param numHits
+	 *            收集的命中记录数
+	 * @return 返回收集命中记录的收集器。
+	 * @throws IOException
+	 *             创建收集器失败时抛出
+	 */
+	private TopDocsCollector<?> createTopDocsCollector(Integer numHits)
+			throws IOException {
+		if (sortFields.isEmpty()) {
+			return TopScoreDocCollector.create(numHits, false);
+		}
+		for (SortField sortField : sortFields) {
+			if (!searchFields.containsKey(sortField.getField())) {
+				throw new HibernateException("全文搜索时指定的排序字段 "
+						+ sortField.getField() + " 必须包含在搜索字段中");
+			}
+		}
+		return TopFieldCollector.create(
+				new Sort(sortFields.toArray(new SortField[] {})), numHits,
+				false, false, false, false);
+	}
+
+	/**
+	 * 将分面字段的统计结果转换为按命中记录数倒序排列的分面统计项。
+	 * 
+	 * @param fieldName
+	 *            字段名
+	 * @param counts
+	 *            “索引词-命中记录数”统计结果
+	 * @return 返回分面统计项列表。
+	 */
+	private List<Facet> createFacets(String fieldName,
+			Map<String, Integer> counts) {
+		Class<? extends IEnum> enumClass = getFacetEnumClass(fieldName);
+		List<Facet> facets = new ArrayList<Facet>();
+		for (Entry<String, Integer> count : counts.entrySet()) {
+			String text = count.getKey();
+			if (enumClass != null) {
+				IEnum ienum = IEnumUtils.getIEnumByValue(enumClass,
+						count.getKey());
+				if (ienum != null) {
+					text = ienum.getText();
+				}
+			}
+			facets.add(new Facet(count.getKey(), text, count.getValue()));
+		}
+		Collections.sort(facets, new Comparator<Facet>() {
+			@Override
+			public int compare(Facet facet1, Facet facet2) {
+				int result = facet2.getCount().compareTo(facet1.getCount());
+				return result != 0 ? result : facet1.getValue().compareTo(
+						facet2.getValue());
+			}
+		});
+		return facets;
+	}
+
+	/**
+	 * 获取使用IEnumValueBridge/IEnumListValueBridge索引的分面字段的枚举类型。
+	 * 
+	 * @param fieldName
+	 *            字段名，关联对象的字段使用“属性名.字段名”的形式
+	 * @return 返回分面字段的枚举类型，不是枚举值字段时返回null。
+	 */
+	@SuppressWarnings("unchecked")
+	private Class<? extends IEnum> getFacetEnumClass(String fieldName) {
+		Class<?> ownerClass = clazz;
+		String[] names = fieldName.split("\\.");
+		Field field = null;
+		for (String name : names) {
+			field = ownerClass == null ? null : BeanUtils.findField(ownerClass,
+					name);
+			if (field == null) {
+				return null;
+			}
+			ownerClass = getElementType(field);
+		}
+		Class<?> bridgeClass = getBridgeClass(field);
+		if (bridgeClass != IEnumValueBridge.class
+				&& bridgeClass != IEnumListValueBridge.class) {
+			return null;
+		}
+		Class<?> enumClass = getElementType(field);
+		return enumClass != null && IEnum.class.isAssignableFrom(enumClass) ? (Class<? extends IEnum>) enumClass
+				: null;
+	}
+
+	/**
+	 * 获取属性的元素类型，集合属性返回集合元素的类型。
+	 * 
+	 * @param field
+	 *            属性
+	 * @return 返回属性的元素类型，无法确定集合元素类型时返回null。
+	 */
+	private Class<?> getElementType(Field field) {
+		if (!Collection.class.isAssignableFrom(field.getType())) {
+			return field.getType();
+		}
+		Type type = field.getGenericType();
+		if (type instanceof ParameterizedType) {
+			Type elementType = ((ParameterizedType) type)
+					.getActualTypeArguments()[0];
+			if (elementType instanceof Class) {
+				return (Class<?>) elementType;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 获取属性索引时使用的桥接器类型。
+	 * 
+	 * @param field
+	 *            属性
+	 * @return 返回属性索引时使用的桥接器类型，未指定桥接器时返回void.class。
+	 */
+	private Class<?> getBridgeClass(Field field) {
+		org.hibernate.search.annotations.Field fieldAnnotation = field
+				.getAnnotation(org.hibernate.search.annotations.Field.class);
+		if (fieldAnnotation != null
+				&& fieldAnnotation.bridge().impl() != void.class) {
+			return fieldAnnotation.bridge().impl();
+		}
+		FieldBridge bridge = field.getAnnotation(FieldBridge.class);
+		return bridge != null ? bridge.impl() : void.class;
+	}
+
+	/**
+	 * 获取实体ID的索引字段名。
+	 * 
+	 * @return 返回实体ID的索引字段名。
+	 */
+	private String getIdFieldName() {
+		List<Field> idFields = BeanUtils.findField(clazz, DocumentId.class);
+		if (idFields.isEmpty()) {
+			return "id";
+		}
+		DocumentId documentId = idFields.get(0).getAnnotation(
+				DocumentId.class);
+		return StringUtils.isBlank(documentId.name()) ? idFields.get(0)
+				.getName() : documentId.name();
+	}
+
+	/**
+	 * 去除查询条件中的转义字符。
+	 * 
+	 * @param query
+	 *            经QueryParser.escape转义的查询条件
+	 * @return 返回去除转义字符后的查询条件。
+	 */
+	private String unescape(String query) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < query.length(); i++) {
+			char c = query.charAt(i);
+			if (c == '\\' && i + 1 < query.length()) {
+				c = query.charAt(++i);
+			}
+			builder.append(c);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 判断属性是否使用N-Gram桥接器索引。
+	 * 
+	 * @param field
+	 *            属性
+	 * @return 如果属性使用N-Gram桥接器索引返回true，否则返回false。
+	 */
+	private Boolean isNGramField(Field field) {
+		return getBridgeClass(field) == NGramBridge.class;
+	}
+
+	/**
+	 * 判断属性是否使用数值桥接器索引。
+	 * 
+	 * @param field
+	 *            属性
+	 * @return 如果属性使用NumericBridge或NumericDateBridge索引返回true，否则返回false。
+	 */
+	private Boolean isNumericField(Field field) {
+		Class<?> bridgeClass = getBridgeClass(field);
+		return bridgeClass == NumericBridge.class
+				|| bridgeClass == NumericDateBridge.class;
+	}
+
 	/**
 	 * 根据当前设置生成Lucene查询对象。
 	 * 
 	 * @return 返回Lucene查询对象。
 	 */
 	private Query generateLuceneQuery() {
-		BooleanQuery query = new BooleanQuery();
 		// 如果关键字为空，则匹配任意记录
-		if (StringUtils.isEmpty(keyword)) {
-			query.add(new WildcardQuery(new Term("id", "*")), Occur.MUST);
-		} else {
-			query.add(
-					generateMultiFieldQuery(QueryParser.escape(keyword),
-							searchFields), Occur.MUST);
-			log.debug("全文搜索包含字段：" + searchFields.keySet());
+		Query keywordQuery = MATCH_ALL_QUERY;
+		if (!StringUtils.isEmpty(keyword)) {
+			keywordQuery = generateKeywordQuery();
+		}
+		// 没有任何过滤条件时直接使用关键字查询
+		if (filterFields.isEmpty() && rangeFilters.isEmpty()
+				&& luceneQuery == null) {
+			return keywordQuery;
 		}
-		// 如果过滤条件字段设置不为空，则将过滤条件字段设置转换为Lucene的查询对象
-		if (!filterFields.isEmpty()) {
-			query.add(generateLuceneQueryFromFilterFields(), Occur.MUST);
+		BooleanQuery query = new BooleanQuery();
+		query.add(keywordQuery, Occur.MUST);
+		// 过滤条件字段和范围过滤条件以过滤器不计分地并入查询条件
+		for (Filter filterFieldFilter : generateFiltersFromFilterFields()) {
+			query.add(new ConstantScoreQuery(filterFieldFilter), Occur.MUST);
+		}
+		for (Filter rangeFilter : rangeFilters.values()) {
+			query.add(new ConstantScoreQuery(rangeFilter), Occur.MUST);
 		}
 		// 如果Lucene查询对象不为空，则将该条件并到之前的Lucene查询条件中
 		if (luceneQuery != null) {
@@ -297,17 +959,57 @@ public class FullTextCriteria {
 	}
 
 	/**
-	 * 将过滤条件字段设置转换为Lucene的查询对象。
+	 * 生成关键字的多字段查询对象，相同实体类、搜索字段和关键字的查询对象从查询计划缓存中获取。
 	 * 
-	 * @return 返回过滤条件字段设置转换为Lucene的查询对象。
+	 * @return 返回关键字的多字段查询对象。
 	 */
-	private BooleanQuery generateLuceneQueryFromFilterFields() {
-		BooleanQuery query = new BooleanQuery();
+	private Query generateKeywordQuery() {
+		log.debug("全文搜索包含字段：" + searchFields.keySet());
+		if (queryCache == null) {
+			return generateMultiFieldQuery(QueryParser.escape(keyword),
+					searchFields);
+		}
+		String key = clazz.getName() + ":" + searchFields + ":" + keyword;
+		Query query = queryCache.getQuery(key);
+		if (query == null) {
+			query = generateMultiFieldQuery(QueryParser.escape(keyword),
+					searchFields);
+			queryCache.putQuery(key, query);
+		}
+		return query;
+	}
+
+	/**
+	 * 将过滤条件字段设置转换为Lucene的过滤器。
+	 * 
+	 * @return 返回过滤条件字段设置转换为的Lucene过滤器列表。
+	 */
+	private List<Filter> generateFiltersFromFilterFields() {
+		List<Filter> filters = new ArrayList<Filter>();
 		for (String filterKey : filterFields.keySet()) {
 			Term term = new Term(filterKey, filterFields.get(filterKey));
-			query.add(new TermQuery(term), Occur.MUST);
+			filters.add(getCachedFilter("term:" + term, new QueryWrapperFilter(
+					new TermQuery(term))));
 		}
-		return query;
+		return filters;
+	}
+
+	/**
+	 * 从过滤器缓存中获取过滤器，没有缓存时缓存指定的过滤器。
+	 * 
+	 * @param key
+	 *            过滤器的键
+	 * @param filter
+	 *            过滤器
+	 * @return 返回缓存的过滤器，未设置缓存时返回指定的过滤器。
+	 */
+	private Filter getCachedFilter(String key, Filter filter) {
+		if (queryCache == null) {
+			return filter;
+		}
+		Filter cachedFilter = queryCache.getFilter(key);
+		return cachedFilter != null ? cachedFilter : queryCache.putFilter(key,
+				filter);
 	}
 
 	/**
@@ -315,7 +1017,7 @@ public class FullTextCriteria {
 	 */
 	private void initSearchFields() {
 		// 获取实体本身声明的索引字段
-		searchFields.putAll(getIndexedFields(clazz));
+		searchFields.putAll(getIndexedFields(clazz, ""));
 		// 获取实体标注为关联索引对象中声明的索引字段名
 		List<Field> embeddedEntityFields = BeanUtils.findField(clazz,
 				IndexedEmbedded.class);
@@ -325,20 +1027,42 @@ public class FullTextCriteria {
 	}
 
 	/**
-	 * 获取指定类中声明为索引字段的属性名称列表。
+	 * 获取指定类中声明为索引字段的属性名称列表，同时记录使用N-Gram桥接器索引的字段和存储了字段值的字段。
 	 * 
 	 * @param clazz
 	 *            类
+	 * @param prefix
+	 *            字段名前缀
 	 * @return 返回指定类中声明为索引字段的属性名称列表。
 	 */
-	private Map<String, Analyze> getIndexedFields(Class<?> clazz) {
+	private Map<String, Analyze> getIndexedFields(Class<?> clazz, String prefix) {
 		Map<String, Analyze> indexedFields = new LinkedHashMap<String, Analyze>();
 		for (Field field : BeanUtils.findField(clazz,
 				org.hibernate.search.annotations.Field.class)) {
-			String fieldName = field.getName();
-			Analyze analyze = field.getAnnotation(
-					org.hibernate.search.annotations.Field.class).analyze();
-			indexedFields.put(fieldName, analyze);
+			String fieldName = prefix + field.getName();
+			if (isNGramField(field)) {
+				ngramFields.add(fieldName);
+			}
+			if (isNumericField(field)) {
+				numericFields.add(fieldName);
+			}
+			org.hibernate.search.annotations.Field fieldAnnotation = field
+					.getAnnotation(org.hibernate.search.annotations.Field.class);
+			if (fieldAnnotation.store() != Store.NO) {
+				storedFields.add(fieldName);
+			}
+			indexedFields.put(fieldName, fieldAnnotation.analyze());
+		}
+		// 标注在getter方法上的存储字段只用于投影，不参与关键字搜索
+		for (Method method : clazz.getMethods()) {
+			org.hibernate.search.annotations.Field fieldAnnotation = method
+					.getAnnotation(org.hibernate.search.annotations.Field.class);
+			if (fieldAnnotation != null && fieldAnnotation.store() != Store.NO) {
+				String propertyName = method.getName().replaceFirst(
+						"^(get|is)", "");
+				storedFields.add(prefix
+						+ Introspector.decapitalize(propertyName));
+			}
 		}
 		return indexedFields;
 	}
@@ -361,13 +1085,12 @@ public class FullTextCriteria {
 			}
 		}
 
-		String prefix = embeddedEntityField.getName() + ".";
-		Map<String, Analyze> embeddedIndexedFields = new LinkedHashMap<String, Analyze>();
-		Map<String, Analyze> indexedFields = getIndexedFields(embeddedClass);
-		for (String fieldName : indexedFields.keySet()) {
-			embeddedIndexedFields.put(prefix + fieldName,
-					indexedFields.get(fieldName));
+		Map<String, Analyze> indexedFields = getIndexedFields(embeddedClass,
+				embeddedEntityField.getName() + ".");
+		// 集合关联对象的字段为多值字段，不能投影到单个实体对象上
+		if (Collection.class.isAssignableFrom(embeddedEntityField.getType())) {
+			storedFields.removeAll(indexedFields.keySet());
 		}
-		return embeddedIndexedFields;
+		return indexedFields;
 	}
 }
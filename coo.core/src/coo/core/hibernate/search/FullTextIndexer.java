@@ -1,29 +1,105 @@
 package coo.core.hibernate.search;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
+import org.hibernate.search.MassIndexer;
+import org.hibernate.search.ProjectionConstants;
 import org.hibernate.search.Search;
+import org.hibernate.search.annotations.FieldBridge;
 import org.hibernate.search.annotations.Indexed;
+import org.hibernate.search.backend.spi.BackendQueueProcessor;
+import org.hibernate.search.engine.spi.EntityIndexBinder;
+import org.hibernate.search.engine.spi.SearchFactoryImplementor;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.indexes.spi.IndexManager;
+import org.hibernate.search.util.impl.ContextHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
-import org.springframework.stereotype.Component;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 
 import coo.base.exception.UncheckedException;
+import coo.base.util.BeanUtils;
+import coo.base.util.StringUtils;
 import coo.core.hibernate.EntityClassBeanFactoryPostProcessor;
 
 /**
- * 全文索引组件。
+ * 全文索引组件。<br/>
+ * 多个实体类的全文索引并行重建，每个实体类使用独立的Session和MassIndexer，重建进度通过IndexingProgress获取。<br/>
+ * 增量重建只重建修改时间晚于检查点的实体，检查点在每次成功重建后按实体类保存，适合定期修复索引。<br/>
+ * 容器启动完成后预热全部实体类的全文索引：打开索引读取器并按预热排序字段执行查询，使排序字段缓存在首次搜索前载入内存。
  */
-@Component
-public class FullTextIndexer extends EntityClassBeanFactoryPostProcessor {
+public class FullTextIndexer extends EntityClassBeanFactoryPostProcessor
+		implements DisposableBean, ApplicationListener<ContextRefreshedEvent> {
 	private final Logger log = LoggerFactory.getLogger(getClass());
-	private final ReentrantLock lock = new ReentrantLock();
-	private FullTextSession session;
 	private List<Class<?>> indexedEntityClasses = new ArrayList<Class<?>>();
+	/** 各实体类最近一次重建的进度 */
+	private Map<Class<?>, IndexingProgress> progresses = new ConcurrentHashMap<Class<?>, IndexingProgress>();
+	private ExecutorService executor;
+	/** 同时重建的实体类数 */
+	private Integer parallelism = 2;
+	/** 每个实体类加载实体对象的线程数 */
+	private Integer threadsToLoadObjects = 2;
+	/** 每个实体类加载关联对象的线程数 */
+	private Integer threadsForSubsequentFetching = 1;
+	/** 每批加载的实体对象数 */
+	private Integer batchSizeToLoadObjects = 25;
+	/** 读取实体ID时的JDBC fetch size */
+	private Integer idFetchSize = 100;
+	/** 增量重建依据的修改时间属性名 */
+	private String deltaProperty = "modifyDate";
+	/** 增量重建时向前多取的时间（秒），用于覆盖修改时间早于检查点但提交晚于检查点的事务 */
+	private Integer deltaOverlap = 60;
+	/** 增量重建检查点文件，为空时保存在全文索引目录下，内存索引只在内存中保存检查点 */
+	private String checkpointFile;
+	/** 各实体类的增量重建检查点 */
+	private Properties checkpoints;
+	/** 是否在容器启动完成后预热全文索引 */
+	private Boolean warmUp = true;
+	/** 预热时载入字段缓存的排序字段，多个字段以逗号分隔，实体类没有的字段忽略 */
+	private String warmUpSortFields = "createDate";
+	/** 各实体类最近一次预热的耗时（毫秒） */
+	private Map<Class<?>, Long> warmUpTimes = new ConcurrentHashMap<Class<?>, Long>();
+	private AtomicBoolean warmedUp = new AtomicBoolean();
 
 	@Override
 	public void postProcessBeanFactory(
@@ -34,56 +110,691 @@ public class FullTextIndexer extends EntityClassBeanFactoryPostProcessor {
 				indexedEntityClasses.add(entityClass);
 			}
 		}
-		session = Search.getFullTextSession(sessionFactory.openSession());
+		final AtomicInteger threadNumber = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(parallelism,
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "coo-indexer-"
+								+ threadNumber.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	@Override
+	public void destroy() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+	}
+
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+		// 子容器的启动事件也会传递到父容器，只在首次启动完成时预热
+		if (warmUp && warmedUp.compareAndSet(false, true)) {
+			warmUp(indexedEntityClasses.toArray(new Class<?>[] {}));
+		}
 	}
 
 	/**
-	 * 同步创建指定实体类的全文索引，如果未指定实体类则创建全部实体类的全文索引。
+	 * 预热指定实体类的全文索引，打开索引读取器并按预热排序字段执行查询。预热失败只记录日志，不影响后续的搜索。
+	 * 
+	 * @param entityClasses
+	 *            实体类列表
+	 */
+	public void warmUp(Class<?>... entityClasses) {
+		for (Class<?> entityClass : entityClasses) {
+			long start = System.currentTimeMillis();
+			try {
+				warmUp(entityClass);
+				long time = System.currentTimeMillis() - start;
+				warmUpTimes.put(entityClass, time);
+				log.info("预热实体 " + entityClass.getSimpleName() + " 全文索引耗时 "
+						+ time + " 毫秒。");
+			} catch (Exception e) {
+				log.warn("预热实体 " + entityClass.getSimpleName()
+						+ " 全文索引时发生异常。", e);
+			}
+		}
+	}
+
+	/**
+	 * 同步创建指定实体类的全文索引。
 	 * 
 	 * @param entityClasses
 	 *            实体类列表
 	 */
 	public void startAndWait(Class<?>... entityClasses) {
-		lock.lock();
+		await(start(entityClasses));
+	}
+
+	/**
+	 * 异步创建指定实体类的全文索引。<br/>
+	 * 正在重建的实体类不会重复提交，直接返回其当前的重建进度。
+	 * 
+	 * @param entityClasses
+	 *            实体类列表
+	 * @return 返回各实体类的重建进度。
+	 */
+	public List<IndexingProgress> start(Class<?>... entityClasses) {
+		return submit(entityClasses, false);
+	}
+
+	/**
+	 * 同步增量重建指定实体类的全文索引。
+	 * 
+	 * @param entityClasses
+	 *            实体类列表
+	 */
+	public void startDeltaAndWait(Class<?>... entityClasses) {
+		await(startDelta(entityClasses));
+	}
+
+	/**
+	 * 异步增量重建指定实体类的全文索引。<br/>
+	 * 只重建修改时间晚于上次成功重建检查点的实体，没有检查点时进行完整重建；没有修改时间属性的实体类将被忽略。<br/>
+	 * 增量重建无法发现已删除的实体，已删除实体的索引由实体删除时的事件监听器负责清除。
+	 * 
+	 * @param entityClasses
+	 *            实体类列表
+	 * @return 返回各实体类的重建进度。
+	 */
+	public List<IndexingProgress> startDelta(Class<?>... entityClasses) {
+		List<Class<?>> deltaClasses = new ArrayList<Class<?>>();
+		for (Class<?> entityClass : entityClasses) {
+			if (isDeltaSupported(entityClass)) {
+				deltaClasses.add(entityClass);
+			} else {
+				log.warn(entityClass.getSimpleName() + " 没有修改时间属性 "
+						+ deltaProperty + "，不支持增量重建全文索引。");
+			}
+		}
+		return submit(deltaClasses.toArray(new Class<?>[] {}), true);
+	}
+
+	/**
+	 * 等待重建结束，重建失败时抛出异常。
+	 * 
+	 * @param indexingProgresses
+	 *            重建进度列表
+	 */
+	private void await(List<IndexingProgress> indexingProgresses) {
+		for (IndexingProgress progress : indexingProgresses) {
+			try {
+				progress.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new UncheckedException("等待重建全文索引时被中断。", e);
+			}
+			if (progress.getStatus() == IndexingStatus.FAILED) {
+				throw new UncheckedException("重建全文索引时发生异常。",
+						progress.getError());
+			}
+		}
+	}
+
+	/**
+	 * 取消指定实体类的全文索引重建，如果未指定实体类则取消全部正在进行的重建。
+	 * 
+	 * @param entityClasses
+	 *            实体类列表
+	 */
+	public void cancel(Class<?>... entityClasses) {
+		List<IndexingProgress> targets = new ArrayList<IndexingProgress>();
+		if (entityClasses.length == 0) {
+			targets.addAll(progresses.values());
+		} else {
+			for (Class<?> entityClass : entityClasses) {
+				if (progresses.containsKey(entityClass)) {
+					targets.add(progresses.get(entityClass));
+				}
+			}
+		}
+		for (IndexingProgress progress : targets) {
+			if (progress.cancel()) {
+				log.info("正在取消重建 "
+						+ progress.getEntityClass().getSimpleName() + " 全文索引...");
+			}
+		}
+	}
+
+	/**
+	 * 判断是否有正在进行的全文索引重建。
+	 * 
+	 * @return 如果有正在进行的全文索引重建返回true，否则返回false。
+	 */
+	public Boolean isRunning() {
+		for (IndexingProgress progress : progresses.values()) {
+			if (!progress.isFinished()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 获取指定实体类最近一次全文索引重建的进度。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @return 返回指定实体类最近一次全文索引重建的进度，从未重建时返回null。
+	 */
+	public IndexingProgress getProgress(Class<?> entityClass) {
+		return progresses.get(entityClass);
+	}
+
+	/**
+	 * 获取所有实体类最近一次全文索引重建的进度。
+	 * 
+	 * @return 返回所有实体类最近一次全文索引重建的进度。
+	 */
+	public List<IndexingProgress> getProgresses() {
+		List<IndexingProgress> indexingProgresses = new ArrayList<IndexingProgress>();
+		for (Class<?> entityClass : indexedEntityClasses) {
+			if (progresses.containsKey(entityClass)) {
+				indexingProgresses.add(progresses.get(entityClass));
+			}
+		}
+		return indexingProgresses;
+	}
+
+	/**
+	 * 获取使用异步写入后端的索引的写入后端，用于查看队列深度、合并数等指标。
+	 * 
+	 * @return 返回异步写入后端列表，未启用异步写入时返回空列表。
+	 */
+	public List<AsyncBackendQueueProcessor> getAsyncBackends() {
+		List<AsyncBackendQueueProcessor> backends = new ArrayList<AsyncBackendQueueProcessor>();
+		SearchFactoryImplementor searchFactory = ContextHelper
+				.getSearchFactoryBySFI((SessionFactoryImplementor) sessionFactory);
+		for (IndexManager indexManager : searchFactory.getAllIndexesManager()
+				.getIndexManagers()) {
+			if (indexManager instanceof DirectoryBasedIndexManager) {
+				BackendQueueProcessor backend = ((DirectoryBasedIndexManager) indexManager)
+						.getBackendQueueProcessor();
+				if (backend instanceof AsyncBackendQueueProcessor) {
+					backends.add((AsyncBackendQueueProcessor) backend);
+				}
+			}
+		}
+		return backends;
+	}
+
+	/**
+	 * 等待异步写入后端队列中的索引变更全部写入索引。
+	 */
+	public void flush() {
+		for (AsyncBackendQueueProcessor backend : getAsyncBackends()) {
+			backend.flush();
+		}
+	}
+
+	/**
+	 * 合并按月分片（MonthShardingStrategy）的实体类全文索引中当前月份以外的历史分片，未按月分片的实体类忽略。
+	 * 
+	 * @param entityClasses
+	 *            实体类列表
+	 */
+	public void optimizeHistoryShards(Class<?>... entityClasses) {
+		SearchFactoryImplementor searchFactory = ContextHelper
+				.getSearchFactoryBySFI((SessionFactoryImplementor) sessionFactory);
+		for (Class<?> entityClass : entityClasses) {
+			EntityIndexBinder binder = searchFactory
+					.getIndexBindingForEntity().get(entityClass);
+			if (binder != null
+					&& binder.getSelectionStrategy() instanceof MonthShardingStrategy) {
+				((MonthShardingStrategy) binder.getSelectionStrategy())
+						.optimizeHistoryShards();
+				log.info("已提交实体 " + entityClass + " 全文索引历史分片的合并。");
+			}
+		}
+	}
+
+	/**
+	 * 提交重建任务，正在重建的实体类不会重复提交，直接返回其当前的重建进度。
+	 * 
+	 * @param entityClasses
+	 *            实体类列表
+	 * @param delta
+	 *            是否增量重建
+	 * @return 返回各实体类的重建进度。
+	 */
+	private synchronized List<IndexingProgress> submit(
+			Class<?>[] entityClasses, final Boolean delta) {
+		List<IndexingProgress> indexingProgresses = new ArrayList<IndexingProgress>();
+		for (final Class<?> indexedEntityClass : entityClasses) {
+			IndexingProgress current = progresses.get(indexedEntityClass);
+			if (current != null && !current.isFinished()) {
+				log.warn(indexedEntityClass.getSimpleName()
+						+ " 全文索引正在重建，忽略本次重建请求。");
+				indexingProgresses.add(current);
+				continue;
+			}
+			final IndexingProgress progress = new IndexingProgress(
+					indexedEntityClass);
+			progresses.put(indexedEntityClass, progress);
+			indexingProgresses.add(progress);
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					Date since = delta ? getCheckpoint(indexedEntityClass)
+							: null;
+					if (since == null) {
+						rebuild(progress);
+					} else {
+						rebuildDelta(progress, since);
+					}
+				}
+			});
+		}
+		return indexingProgresses;
+	}
+
+	/**
+	 * 使用独立的Session重建实体类的全文索引。
+	 * 
+	 * @param progress
+	 *            重建进度
+	 */
+	private void rebuild(IndexingProgress progress) {
+		String entityName = progress.getEntityClass().getSimpleName();
+		progress.begin();
+		if (progress.isFinished()) {
+			return;
+		}
+		log.info("开始重建 " + entityName + " 全文索引...");
+		Date checkpoint = new Date(progress.getStartTime());
+		FullTextSession session = Search.getFullTextSession(sessionFactory
+				.openSession());
 		try {
-			for (Class<?> indexedEntityClass : entityClasses) {
-				log.info("开始重建 " + indexedEntityClass.getSimpleName()
-						+ " 全文索引...");
-				Long startTime = System.currentTimeMillis();
-				session.createIndexer(indexedEntityClass).startAndWait();
-				Long endTime = System.currentTimeMillis();
-				log.info("完成重建 " + indexedEntityClass.getSimpleName()
-						+ " 全文索引...耗时" + (endTime - startTime) + "毫秒。");
+			MassIndexer indexer = session
+					.createIndexer(progress.getEntityClass())
+					.threadsToLoadObjects(threadsToLoadObjects)
+					.threadsForSubsequentFetching(threadsForSubsequentFetching)
+					.batchSizeToLoadObjects(batchSizeToLoadObjects)
+					.idFetchSize(idFetchSize).cacheMode(CacheMode.IGNORE)
+					.progressMonitor(progress);
+			Future<?> future = indexer.start();
+			while (true) {
+				try {
+					future.get(1, TimeUnit.SECONDS);
+					break;
+				} catch (TimeoutException e) {
+					progress.releaseProducers(threadsToLoadObjects);
+				}
+			}
+			progress.complete();
+			if (progress.getStatus() == IndexingStatus.CANCELLED) {
+				log.info("已取消重建 " + entityName + " 全文索引。");
+			} else {
+				if (isDeltaSupported(progress.getEntityClass())) {
+					saveCheckpoint(progress.getEntityClass(), checkpoint);
+				}
+				log.info("完成重建 " + entityName + " 全文索引...共"
+						+ progress.getDocumentCount() + "条，耗时"
+						+ progress.getElapsedTime() + "毫秒。");
 			}
+		} catch (InterruptedException e) {
+			progress.fail(e);
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			progress.fail(e.getCause());
+			log.error("重建 " + entityName + " 全文索引时发生异常。", e.getCause());
 		} catch (Exception e) {
-			throw new UncheckedException("重建全文索引时发生异常。", e);
+			progress.fail(e);
+			log.error("重建 " + entityName + " 全文索引时发生异常。", e);
 		} finally {
-			lock.unlock();
+			session.close();
 		}
 	}
 
 	/**
-	 * 异步创建指定实体类的全文索引。
+	 * 增量重建实体类的全文索引。<br/>
+	 * 使用只进游标逐条读取修改时间晚于检查点的实体并写入索引，每批刷新索引并清理Session，内存占用保持恒定。
 	 * 
-	 * @param entityClasses
-	 *            实体类列表
+	 * @param progress
+	 *            重建进度
+	 * @param since
+	 *            检查点
 	 */
-	public void start(Class<?>... entityClasses) {
-		lock.lock();
+	private void rebuildDelta(IndexingProgress progress, Date since) {
+		Class<?> entityClass = progress.getEntityClass();
+		String entityName = entityClass.getSimpleName();
+		progress.begin();
+		if (progress.isFinished()) {
+			return;
+		}
+		Date checkpoint = new Date(progress.getStartTime());
+		Date from = new Date(since.getTime() - deltaOverlap * 1000L);
+		log.info("开始增量重建 " + entityName + " 全文索引，修改时间晚于 " + from
+				+ "...");
+		FullTextSession session = Search.getFullTextSession(sessionFactory
+				.openSession());
+		ScrollableResults results = null;
 		try {
-			for (Class<?> indexedEntityClass : entityClasses) {
-				log.info("异步重建 " + indexedEntityClass.getSimpleName()
-						+ " 全文索引。");
-				session.createIndexer(indexedEntityClass).start();
+			session.setFlushMode(FlushMode.MANUAL);
+			session.setCacheMode(CacheMode.IGNORE);
+			session.setDefaultReadOnly(true);
+			Transaction transaction = session.beginTransaction();
+			Number total = (Number) session.createCriteria(entityClass)
+					.add(Restrictions.gt(deltaProperty, from))
+					.setProjection(Projections.rowCount()).uniqueResult();
+			progress.addToTotalCount(total.longValue());
+			results = session.createCriteria(entityClass)
+					.add(Restrictions.gt(deltaProperty, from))
+					.setFetchSize(idFetchSize).scroll(ScrollMode.FORWARD_ONLY);
+			int count = 0;
+			while (progress.getStatus() == IndexingStatus.RUNNING
+					&& results.next()) {
+				session.index(results.get(0));
+				if (++count % batchSizeToLoadObjects == 0) {
+					session.flushToIndexes();
+					session.clear();
+					progress.documentsAdded(batchSizeToLoadObjects);
+				}
+			}
+			session.flushToIndexes();
+			progress.documentsAdded(count % batchSizeToLoadObjects);
+			transaction.commit();
+			flush();
+			progress.complete();
+			if (progress.getStatus() == IndexingStatus.CANCELLED) {
+				log.info("已取消增量重建 " + entityName + " 全文索引。");
+			} else {
+				saveCheckpoint(entityClass, checkpoint);
+				log.info("完成增量重建 " + entityName + " 全文索引...共" + count
+						+ "条，耗时" + progress.getElapsedTime() + "毫秒。");
 			}
 		} catch (Exception e) {
-			throw new UncheckedException("重建全文索引时发生异常。", e);
+			progress.fail(e);
+			log.error("增量重建 " + entityName + " 全文索引时发生异常。", e);
+		} finally {
+			if (results != null) {
+				results.close();
+			}
+			session.close();
+		}
+	}
+
+	/**
+	 * 判断实体类是否支持增量重建，即是否有日期类型的修改时间属性。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @return 如果实体类支持增量重建返回true，否则返回false。
+	 */
+	private Boolean isDeltaSupported(Class<?> entityClass) {
+		Field field = BeanUtils.findField(entityClass, deltaProperty);
+		return field != null && Date.class.isAssignableFrom(field.getType());
+	}
+
+	/**
+	 * 获取实体类的增量重建检查点。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @return 返回实体类的增量重建检查点，没有检查点时返回null。
+	 */
+	private synchronized Date getCheckpoint(Class<?> entityClass) {
+		String checkpoint = loadCheckpoints().getProperty(entityClass.getName());
+		return checkpoint == null ? null : new Date(Long.valueOf(checkpoint));
+	}
+
+	/**
+	 * 保存实体类的增量重建检查点。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param checkpoint
+	 *            检查点
+	 */
+	private synchronized void saveCheckpoint(Class<?> entityClass,
+			Date checkpoint) {
+		Properties properties = loadCheckpoints();
+		properties.setProperty(entityClass.getName(),
+				String.valueOf(checkpoint.getTime()));
+		File file = findCheckpointFile();
+		if (file == null) {
+			return;
+		}
+		OutputStream out = null;
+		try {
+			file.getParentFile().mkdirs();
+			out = new FileOutputStream(file);
+			properties.store(out, "full text index delta checkpoints");
+		} catch (IOException e) {
+			log.error("保存全文索引增量重建检查点文件 " + file + " 时发生异常。", e);
+		} finally {
+			close(out);
+		}
+	}
+
+	/**
+	 * 加载增量重建检查点。
+	 * 
+	 * @return 返回增量重建检查点。
+	 */
+	private Properties loadCheckpoints() {
+		if (checkpoints != null) {
+			return checkpoints;
+		}
+		checkpoints = new Properties();
+		File file = findCheckpointFile();
+		if (file != null && file.exists()) {
+			InputStream in = null;
+			try {
+				in = new FileInputStream(file);
+				checkpoints.load(in);
+			} catch (IOException e) {
+				log.error("读取全文索引增量重建检查点文件 " + file + " 时发生异常。", e);
+			} finally {
+				close(in);
+			}
+		}
+		return checkpoints;
+	}
+
+	/**
+	 * 获取增量重建检查点文件。<br/>
+	 * 未指定检查点文件时保存在全文索引目录下，使检查点与索引文件同生共灭；使用内存索引时返回null。
+	 * 
+	 * @return 返回增量重建检查点文件。
+	 */
+	private File findCheckpointFile() {
+		if (StringUtils.isNotBlank(checkpointFile)) {
+			return new File(checkpointFile);
+		}
+		Properties properties = localSessionFactoryBean
+				.getHibernateProperties();
+		String directoryProvider = properties
+				.getProperty("hibernate.search.default.directory_provider");
+		String indexBase = properties
+				.getProperty("hibernate.search.default.indexBase");
+		if ("ram".equals(directoryProvider) || StringUtils.isBlank(indexBase)) {
+			return null;
+		}
+		return new File(indexBase, "delta-checkpoint.properties");
+	}
+
+	/**
+	 * 关闭流，关闭时发生的异常只记录日志。
+	 * 
+	 * @param stream
+	 *            流
+	 */
+	private void close(Closeable stream) {
+		if (stream != null) {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				log.warn("关闭全文索引增量重建检查点文件时发生异常。", e);
+			}
+		}
+	}
+
+	/**
+	 * 预热实体类的全文索引。先执行不排序的查询打开索引读取器，再按实体类的每个预热排序字段执行排序查询载入字段缓存。
+	 * 查询只投影实体ID，不从数据库加载实体。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 */
+	private void warmUp(Class<?> entityClass) {
+		Session session = sessionFactory.openSession();
+		try {
+			FullTextSession fullTextSession = Search.getFullTextSession(session);
+			List<Sort> sorts = new ArrayList<Sort>();
+			sorts.add(null);
+			for (String fieldName : warmUpSortFields.split(",")) {
+				SortField sortField = getWarmUpSortField(entityClass,
+						fieldName.trim());
+				if (sortField != null) {
+					sorts.add(new Sort(sortField));
+				}
+			}
+			for (Sort sort : sorts) {
+				FullTextQuery query = fullTextSession.createFullTextQuery(
+						new MatchAllDocsQuery(), entityClass);
+				query.setProjection(ProjectionConstants.ID);
+				query.setMaxResults(10);
+				if (sort != null) {
+					query.setSort(sort);
+				}
+				query.list();
+			}
 		} finally {
-			lock.unlock();
+			session.close();
+		}
+	}
+
+	/**
+	 * 获取实体类的预热排序字段。排序类型与搜索时一致：NumericBridge、NumericDateBridge索引的字段按数值类型排序，其它字段按字符串排序。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param fieldName
+	 *            字段名
+	 * @return 返回预热排序字段，实体类没有该字段或该字段没有索引时返回null。
+	 */
+	private SortField getWarmUpSortField(Class<?> entityClass, String fieldName) {
+		if (StringUtils.isBlank(fieldName)) {
+			return null;
+		}
+		Field field = BeanUtils.findField(entityClass, fieldName);
+		if (field == null
+				|| !field
+						.isAnnotationPresent(org.hibernate.search.annotations.Field.class)) {
+			return null;
+		}
+		FieldBridge bridge = field.getAnnotation(
+				org.hibernate.search.annotations.Field.class).bridge();
+		if (bridge.impl() == NumericDateBridge.class) {
+			return new SortField(fieldName, SortField.LONG, true);
+		}
+		if (bridge.impl() == NumericBridge.class) {
+			Class<?> type = field.getType();
+			if (type == Integer.class || type == int.class) {
+				return new SortField(fieldName, SortField.INT, true);
+			}
+			if (type == Float.class || type == float.class) {
+				return new SortField(fieldName, SortField.FLOAT, true);
+			}
+			if (type == Double.class || type == double.class) {
+				return new SortField(fieldName, SortField.DOUBLE, true);
+			}
+			return new SortField(fieldName, SortField.LONG, true);
 		}
+		return new SortField(fieldName, SortField.STRING, true);
 	}
 
 	public List<Class<?>> getIndexedEntityClasses() {
 		return indexedEntityClasses;
 	}
-}
\ No newline at end of file
+
+	public Integer getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(Integer parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public Integer getThreadsToLoadObjects() {
+		return threadsToLoadObjects;
+	}
+
+	public void setThreadsToLoadObjects(Integer threadsToLoadObjects) {
+		this.threadsToLoadObjects = threadsToLoadObjects;
+	}
+
+	public Integer getThreadsForSubsequentFetching() {
+		return threadsForSubsequentFetching;
+	}
+
+	public void setThreadsForSubsequentFetching(
+			Integer threadsForSubsequentFetching) {
+		this.threadsForSubsequentFetching = threadsForSubsequentFetching;
+	}
+
+	public Integer getBatchSizeToLoadObjects() {
+		return batchSizeToLoadObjects;
+	}
+
+	public void setBatchSizeToLoadObjects(Integer batchSizeToLoadObjects) {
+		this.batchSizeToLoadObjects = batchSizeToLoadObjects;
+	}
+
+	public Integer getIdFetchSize() {
+		return idFetchSize;
+	}
+
+	public void setIdFetchSize(Integer idFetchSize) {
+		this.idFetchSize = idFetchSize;
+	}
+
+	public String getDeltaProperty() {
+		return deltaProperty;
+	}
+
+	public void setDeltaProperty(String deltaProperty) {
+		this.deltaProperty = deltaProperty;
+	}
+
+	public Integer getDeltaOverlap() {
+		return deltaOverlap;
+	}
+
+	public void setDeltaOverlap(Integer deltaOverlap) {
+		this.deltaOverlap = deltaOverlap;
+	}
+
+	public String getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	public void setCheckpointFile(String checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	public Boolean getWarmUp() {
+		return warmUp;
+	}
+
+	public void setWarmUp(Boolean warmUp) {
+		this.warmUp = warmUp;
+	}
+
+	public String getWarmUpSortFields() {
+		return warmUpSortFields;
+	}
+
+	public void setWarmUpSortFields(String warmUpSortFields) {
+		this.warmUpSortFields = warmUpSortFields;
+	}
+
+	public Map<Class<?>, Long> getWarmUpTimes() {
+		return warmUpTimes;
+	}
+}
@@ -0,0 +1,127 @@
+package coo.core.hibernate.search;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.lucene.search.CachingWrapperFilter;
+import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.Query;
+
+/**
+ * 全文搜索查询计划和过滤器缓存组件。<br/>
+ * 查询计划以实体类、搜索字段和关键字作为键缓存解析生成的关键字查询对象，相同条件的重复搜索不再重新解析关键字。<br/>
+ * 过滤器以过滤条件作为键缓存，缓存的过滤器按索引段缓存过滤结果位集（每个索引段约占文档数/8字节），索引段不变时直接复用，索引段关闭后自动释放。
+ * 因此只应缓存取值有限、反复使用的过滤条件，如枚举字段过滤、固定的时间范围。<br/>
+ * 查询计划和过滤器与索引数据无关，不需要在实体写入后失效；超过最大缓存数时淘汰最久未使用的缓存项，最大缓存数小于等于0时不缓存。
+ */
+public class FullTextQueryCache {
+	/** 查询计划最多缓存的数量 */
+	private Integer maxSize = 1000;
+	/** 过滤器最多缓存的数量 */
+	private Integer filterMaxSize = 100;
+	private Map<String, Query> queries = Collections
+			.synchronizedMap(new LinkedHashMap<String, Query>(16, 0.75f, true) {
+				private static final long serialVersionUID = -4425373530417562361L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Query> eldest) {
+					return size() > maxSize;
+				}
+			});
+	private Map<String, Filter> filters = Collections
+			.synchronizedMap(new LinkedHashMap<String, Filter>(16, 0.75f, true) {
+				private static final long serialVersionUID = 2690378470815562917L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<String, Filter> eldest) {
+					return size() > filterMaxSize;
+				}
+			});
+
+	/**
+	 * 获取缓存的查询计划。
+	 * 
+	 * @param key
+	 *            查询计划的键
+	 * @return 返回缓存的查询对象，没有缓存时返回null。
+	 */
+	public Query getQuery(String key) {
+		return queries.get(key);
+	}
+
+	/**
+	 * 缓存查询计划。缓存的查询对象会被多个搜索共享，缓存后不能再修改。
+	 * 
+	 * @param key
+	 *            查询计划的键
+	 * @param query
+	 *            查询对象
+	 */
+	public void putQuery(String key, Query query) {
+		if (maxSize <= 0) {
+			return;
+		}
+		queries.put(key, query);
+	}
+
+	/**
+	 * 获取缓存的过滤器。
+	 * 
+	 * @param key
+	 *            过滤器的键
+	 * @return 返回缓存的过滤器，没有缓存时返回null。
+	 */
+	public Filter getFilter(String key) {
+		return filters.get(key);
+	}
+
+	/**
+	 * 缓存过滤器。过滤器被包装为按索引段缓存过滤结果的过滤器。
+	 * 
+	 * @param key
+	 *            过滤器的键
+	 * @param filter
+	 *            过滤器
+	 * @return 返回缓存的过滤器，不缓存时返回原过滤器。
+	 */
+	public Filter putFilter(String key, Filter filter) {
+		if (filterMaxSize <= 0) {
+			return filter;
+		}
+		synchronized (filters) {
+			Filter existing = filters.get(key);
+			if (existing != null) {
+				return existing;
+			}
+			Filter cachingFilter = new CachingWrapperFilter(filter);
+			filters.put(key, cachingFilter);
+			return cachingFilter;
+		}
+	}
+
+	/**
+	 * 清空缓存。
+	 */
+	public void clear() {
+		queries.clear();
+		filters.clear();
+	}
+
+	public Integer getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(Integer maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public Integer getFilterMaxSize() {
+		return filterMaxSize;
+	}
+
+	public void setFilterMaxSize(Integer filterMaxSize) {
+		this.filterMaxSize = filterMaxSize;
+	}
+}
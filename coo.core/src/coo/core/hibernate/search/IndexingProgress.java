@@ -0,0 +1,284 @@
+package coo.core.hibernate.search;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.search.SearchException;
+import org.hibernate.search.batchindexing.MassIndexerProgressMonitor;
+
+/**
+ * 实体类全文索引重建进度。<br/>
+ * 作为MassIndexer的进度监视器接收已加载实体数和已写入文档数，据此计算重建速度（文档/秒）和预计剩余时间。<br/>
+ * MassIndexer的工作线程不响应中断（中断会使其无法通知下游结束），因此取消时由加载实体的线程在下一次回调时抛出异常正常退出，
+ * 下游将已加载的实体写入索引后结束；加载线程全部退出后再中断可能阻塞在ID队列上的读取ID线程。
+ * MassIndexer结束后才视为取消完成，保证之后的重建不会与其同时写入索引。
+ */
+public class IndexingProgress implements MassIndexerProgressMonitor {
+	private Class<?> entityClass;
+	private volatile IndexingStatus status = IndexingStatus.WAITING;
+	/** 待索引的实体总数 */
+	private AtomicLong totalCount = new AtomicLong();
+	/** 已加载的实体数 */
+	private AtomicLong loadedCount = new AtomicLong();
+	/** 已写入索引的文档数 */
+	private AtomicLong documentCount = new AtomicLong();
+	private volatile Long startTime;
+	private volatile Long endTime;
+	private volatile Throwable error;
+	private CountDownLatch finished = new CountDownLatch(1);
+	/** 读取ID的线程 */
+	private Set<Thread> producers = Collections
+			.synchronizedSet(new HashSet<Thread>());
+	/** 加载实体的线程 */
+	private Set<Thread> loaders = Collections
+			.synchronizedSet(new HashSet<Thread>());
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 */
+	public IndexingProgress(Class<?> entityClass) {
+		this.entityClass = entityClass;
+	}
+
+	@Override
+	public void documentsAdded(long increment) {
+		documentCount.addAndGet(increment);
+	}
+
+	@Override
+	public void documentsBuilt(int number) {
+	}
+
+	@Override
+	public void entitiesLoaded(int size) {
+		loaders.add(Thread.currentThread());
+		if (status == IndexingStatus.CANCELLING) {
+			throw new SearchException(entityClass.getSimpleName()
+					+ " 全文索引重建已取消，停止加载实体。");
+		}
+		loadedCount.addAndGet(size);
+	}
+
+	@Override
+	public void addToTotalCount(long count) {
+		producers.add(Thread.currentThread());
+		totalCount.addAndGet(count);
+	}
+
+	@Override
+	public void indexingCompleted() {
+	}
+
+	/**
+	 * 取消重建。<br/>
+	 * 已写入的文档不会回滚，该实体类的索引处于不完整状态，需要重新重建。
+	 * 
+	 * @return 如果重建尚未结束并成功取消返回true，否则返回false。
+	 */
+	public synchronized Boolean cancel() {
+		if (isFinished() || status == IndexingStatus.CANCELLING) {
+			return false;
+		}
+		if (status == IndexingStatus.WAITING) {
+			status = IndexingStatus.CANCELLED;
+			end();
+			return true;
+		}
+		status = IndexingStatus.CANCELLING;
+		return true;
+	}
+
+	/**
+	 * 等待重建结束。
+	 * 
+	 * @throws InterruptedException
+	 *             等待被中断时抛出
+	 */
+	public void await() throws InterruptedException {
+		finished.await();
+	}
+
+	/**
+	 * 判断重建是否已结束（完成、取消或失败）。
+	 * 
+	 * @return 如果重建已结束返回true，否则返回false。
+	 */
+	public Boolean isFinished() {
+		return status == IndexingStatus.COMPLETED
+				|| status == IndexingStatus.CANCELLED
+				|| status == IndexingStatus.FAILED;
+	}
+
+	/**
+	 * 获取已耗费的时间（毫秒）。
+	 * 
+	 * @return 返回已耗费的时间（毫秒），尚未开始时返回0。
+	 */
+	public Long getElapsedTime() {
+		if (startTime == null) {
+			return 0L;
+		}
+		return (endTime == null ? System.currentTimeMillis() : endTime)
+				- startTime;
+	}
+
+	/**
+	 * 获取重建速度（文档/秒）。
+	 * 
+	 * @return 返回重建速度（文档/秒）。
+	 */
+	public Double getThroughput() {
+		Long elapsedTime = getElapsedTime();
+		if (elapsedTime <= 0) {
+			return 0D;
+		}
+		return documentCount.get() * 1000D / elapsedTime;
+	}
+
+	/**
+	 * 获取完成百分比。
+	 * 
+	 * @return 返回完成百分比（0-100）。
+	 */
+	public Integer getPercent() {
+		if (status == IndexingStatus.COMPLETED) {
+			return 100;
+		}
+		long total = totalCount.get();
+		if (total <= 0) {
+			return 0;
+		}
+		return (int) Math.min(100, documentCount.get() * 100 / total);
+	}
+
+	/**
+	 * 获取预计剩余时间（秒）。
+	 * 
+	 * @return 返回按当前重建速度估算的剩余时间（秒），无法估算时返回null。
+	 */
+	public Long getEta() {
+		if (isFinished()) {
+			return 0L;
+		}
+		Double throughput = getThroughput();
+		if (throughput <= 0 || totalCount.get() <= 0) {
+			return null;
+		}
+		long remain = Math.max(0, totalCount.get() - documentCount.get());
+		return (long) Math.ceil(remain / throughput);
+	}
+
+	/**
+	 * 标记重建开始。
+	 */
+	synchronized void begin() {
+		if (status == IndexingStatus.WAITING) {
+			status = IndexingStatus.RUNNING;
+			startTime = System.currentTimeMillis();
+		}
+	}
+
+	/**
+	 * 标记重建失败。
+	 * 
+	 * @param error
+	 *            异常
+	 */
+	synchronized void fail(Throwable error) {
+		if (!isFinished()) {
+			status = IndexingStatus.FAILED;
+			this.error = error;
+			end();
+		}
+	}
+
+	/**
+	 * 标记重建结束，正在取消时标记为已取消，否则标记为已完成。
+	 */
+	synchronized void complete() {
+		if (status == IndexingStatus.CANCELLING) {
+			status = IndexingStatus.CANCELLED;
+			end();
+		} else if (!isFinished()) {
+			status = IndexingStatus.COMPLETED;
+			end();
+		}
+	}
+
+	/**
+	 * 正在取消时，如果加载实体的线程已全部退出，则中断读取ID的线程。<br/>
+	 * 加载线程退出后ID队列不再被消费，读取ID的线程可能阻塞在已满的队列上，此时中断它不会影响下游。
+	 * 
+	 * @param loaderThreads
+	 *            加载实体的线程数
+	 */
+	void releaseProducers(Integer loaderThreads) {
+		if (status != IndexingStatus.CANCELLING) {
+			return;
+		}
+		synchronized (loaders) {
+			if (loaders.size() < loaderThreads) {
+				return;
+			}
+			for (Thread loader : loaders) {
+				if (loader.isAlive()) {
+					return;
+				}
+			}
+		}
+		synchronized (producers) {
+			for (Thread producer : producers) {
+				producer.interrupt();
+			}
+		}
+	}
+
+	/**
+	 * 记录结束时间。
+	 */
+	private void end() {
+		endTime = System.currentTimeMillis();
+		if (startTime == null) {
+			startTime = endTime;
+		}
+		finished.countDown();
+	}
+
+	public Class<?> getEntityClass() {
+		return entityClass;
+	}
+
+	public IndexingStatus getStatus() {
+		return status;
+	}
+
+	public Long getTotalCount() {
+		return totalCount.get();
+	}
+
+	public Long getLoadedCount() {
+		return loadedCount.get();
+	}
+
+	public Long getDocumentCount() {
+		return documentCount.get();
+	}
+
+	public Long getStartTime() {
+		return startTime;
+	}
+
+	public Long getEndTime() {
+		return endTime;
+	}
+
+	public Throwable getError() {
+		return error;
+	}
+}
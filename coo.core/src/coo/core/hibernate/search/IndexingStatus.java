@@ -0,0 +1,29 @@
+package coo.core.hibernate.search;
+
+import coo.core.model.IEnum;
+
+/**
+ * 全文索引重建状态。
+ */
+public enum IndexingStatus implements IEnum {
+	WAITING("等待", "0"), RUNNING("重建中", "1"), CANCELLING("取消中", "2"), COMPLETED(
+			"已完成", "3"), CANCELLED("已取消", "4"), FAILED("失败", "5");
+
+	private String text;
+	private String value;
+
+	private IndexingStatus(String text, String value) {
+		this.text = text;
+		this.value = value;
+	}
+
+	@Override
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public String getValue() {
+		return value;
+	}
+}
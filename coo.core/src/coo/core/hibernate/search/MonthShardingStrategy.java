@@ -0,0 +1,141 @@
+package coo.core.hibernate.search;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.document.NumericField;
+import org.hibernate.search.filter.FullTextFilterImplementor;
+import org.hibernate.search.indexes.spi.IndexManager;
+import org.hibernate.search.store.IndexShardingStrategy;
+
+/**
+ * 按月分片的全文索引分片策略。<br/>
+ * 实体按日期字段（使用NumericDateBridge索引）所在的月份写入分片，分片数为N时第M个月（自公元0年起计）写入第M%N个分片，
+ * 最近N个月每月各占一个分片，更早的月份按月循环与其后第N个整数倍的月份共用分片。<br/>
+ * 搜索时启用名为{@link #FILTER_NAME}的FullTextFilter（实体类上以ShardSensitiveOnlyFilter声明）并设置from/to参数，
+ * 只打开时间段覆盖的月份所在的分片；未启用或时间段跨度达到N个月时打开全部分片。由于分片中可能包含更早的月份，搜索时仍需同时设置日期范围过滤条件。<br/>
+ * 当前月份以外的分片在循环到下一周期之前不再写入，可以通过{@link #optimizeHistoryShards()}合并为优化后的段。<br/>
+ * 通过hibernate.search.[索引名].sharding_strategy.nbr_of_shards设置分片数，
+ * hibernate.search.[索引名].sharding_strategy.date_field设置日期字段（默认为createDate）。
+ */
+public class MonthShardingStrategy implements IndexShardingStrategy {
+	/** 按时间段选择分片的过滤器名称 */
+	public static final String FILTER_NAME = "monthShard";
+	/** 时间段起始参数名 */
+	public static final String FROM = "from";
+	/** 时间段截止参数名 */
+	public static final String TO = "to";
+	private IndexManager[] indexManagers;
+	private String dateField;
+
+	@Override
+	public void initialize(Properties properties, IndexManager[] indexManagers) {
+		this.indexManagers = indexManagers;
+		dateField = properties.getProperty("date_field", "createDate");
+	}
+
+	@Override
+	public IndexManager[] getIndexManagersForAllShards() {
+		return indexManagers;
+	}
+
+	@Override
+	public IndexManager getIndexManagerForAddition(Class<?> entity,
+			Serializable id, String idInString, Document document) {
+		Fieldable field = document.getFieldable(dateField);
+		Date date = new Date();
+		if (field instanceof NumericField) {
+			date = new Date(((NumericField) field).getNumericValue()
+					.longValue());
+		}
+		return indexManagers[getShard(date)];
+	}
+
+	@Override
+	public IndexManager[] getIndexManagersForDeletion(Class<?> entity,
+			Serializable id, String idInString) {
+		// 实体ID不包含日期信息，删除时需要在全部分片中删除
+		return indexManagers;
+	}
+
+	@Override
+	public IndexManager[] getIndexManagersForQuery(
+			FullTextFilterImplementor[] fullTextFilters) {
+		for (FullTextFilterImplementor filter : fullTextFilters) {
+			if (FILTER_NAME.equals(filter.getName())) {
+				return getIndexManagersForPeriod(
+						(Date) filter.getParameter(FROM),
+						(Date) filter.getParameter(TO));
+			}
+		}
+		return indexManagers;
+	}
+
+	/**
+	 * 合并当前月份以外的历史分片。历史分片不再写入，合并后搜索时只需读取一个段。
+	 */
+	public void optimizeHistoryShards() {
+		int currentShard = getShard(new Date());
+		for (int i = 0; i < indexManagers.length; i++) {
+			if (i != currentShard) {
+				indexManagers[i].optimize();
+			}
+		}
+	}
+
+	/**
+	 * 获取时间段覆盖的月份所在的分片。
+	 * 
+	 * @param from
+	 *            起始时间，为null时不限
+	 * @param to
+	 *            截止时间，为null时为当前时间
+	 * @return 返回时间段覆盖的月份所在的分片。
+	 */
+	private IndexManager[] getIndexManagersForPeriod(Date from, Date to) {
+		if (from == null) {
+			return indexManagers;
+		}
+		int fromMonth = getMonth(from);
+		int toMonth = getMonth(to == null ? new Date() : to);
+		if (toMonth < fromMonth
+				|| toMonth - fromMonth + 1 >= indexManagers.length) {
+			return indexManagers;
+		}
+		List<IndexManager> shards = new ArrayList<IndexManager>();
+		for (int month = fromMonth; month <= toMonth; month++) {
+			shards.add(indexManagers[month % indexManagers.length]);
+		}
+		return shards.toArray(new IndexManager[] {});
+	}
+
+	/**
+	 * 获取日期所在月份对应的分片序号。
+	 * 
+	 * @param date
+	 *            日期
+	 * @return 返回日期所在月份对应的分片序号。
+	 */
+	private int getShard(Date date) {
+		return getMonth(date) % indexManagers.length;
+	}
+
+	/**
+	 * 获取日期自公元0年起的月份序号。
+	 * 
+	 * @param date
+	 *            日期
+	 * @return 返回日期自公元0年起的月份序号。
+	 */
+	private int getMonth(Date date) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(date);
+		return calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH);
+	}
+}
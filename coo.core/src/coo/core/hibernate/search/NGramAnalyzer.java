@@ -0,0 +1,117 @@
+package coo.core.hibernate.search;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+/**
+ * N-Gram分词器。<br/>
+ * 将整个字段值转为小写后，从每个字符位置开始切分出长度为1至MAX_GRAM的子串，同一起始位置的子串位于同一词位。
+ * 与{@link NGramBridge}配合使用，使子串匹配成为词条查找，避免前置通配符查询遍历整个词典。
+ */
+public final class NGramAnalyzer extends Analyzer {
+	/** 切分子串的最大长度 */
+	public static final int MAX_GRAM = 3;
+
+	@Override
+	public TokenStream tokenStream(String fieldName, Reader reader) {
+		return new NGramTokenizer(reader);
+	}
+
+	/**
+	 * 生成子串匹配的查询对象。<br/>
+	 * 关键字长度不超过MAX_GRAM时直接查找词条，否则将关键字切分为长度为MAX_GRAM的子串按原始位置组成短语查询。
+	 * 
+	 * @param fieldName
+	 *            N-Gram索引字段名
+	 * @param keyword
+	 *            关键字
+	 * @return 返回子串匹配的查询对象。
+	 */
+	public static Query createQuery(String fieldName, String keyword) {
+		String text = keyword.toLowerCase();
+		if (text.length() <= MAX_GRAM) {
+			return new TermQuery(new Term(fieldName, text));
+		}
+		PhraseQuery query = new PhraseQuery();
+		int last = text.length() - MAX_GRAM;
+		for (int i = 0; i < last; i += MAX_GRAM) {
+			query.add(new Term(fieldName, text.substring(i, i + MAX_GRAM)), i);
+		}
+		query.add(new Term(fieldName, text.substring(last)), last);
+		return query;
+	}
+
+	/**
+	 * N-Gram切分器。
+	 */
+	private static class NGramTokenizer extends Tokenizer {
+		private CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+		private OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+		private PositionIncrementAttribute posIncrAtt = addAttribute(PositionIncrementAttribute.class);
+		private String text;
+		private int start;
+		private int gram;
+
+		/**
+		 * 构造方法。
+		 * 
+		 * @param input
+		 *            字段值读取器
+		 */
+		NGramTokenizer(Reader input) {
+			super(input);
+		}
+
+		@Override
+		public boolean incrementToken() throws IOException {
+			clearAttributes();
+			if (text == null) {
+				StringBuilder builder = new StringBuilder();
+				char[] buffer = new char[256];
+				int length;
+				while ((length = input.read(buffer)) > 0) {
+					builder.append(buffer, 0, length);
+				}
+				text = builder.toString().toLowerCase();
+				start = 0;
+				gram = 0;
+			}
+			gram++;
+			if (gram > MAX_GRAM || start + gram > text.length()) {
+				start++;
+				gram = 1;
+			}
+			if (start >= text.length()) {
+				return false;
+			}
+			termAtt.setEmpty().append(text, start, start + gram);
+			offsetAtt.setOffset(correctOffset(start),
+					correctOffset(start + gram));
+			posIncrAtt.setPositionIncrement(gram == 1 ? 1 : 0);
+			return true;
+		}
+
+		@Override
+		public void end() {
+			int finalOffset = correctOffset(text == null ? 0 : text.length());
+			offsetAtt.setOffset(finalOffset, finalOffset);
+		}
+
+		@Override
+		public void reset(Reader input) throws IOException {
+			super.reset(input);
+			text = null;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package coo.core.hibernate.search;
+
+import java.io.StringReader;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.hibernate.search.bridge.LuceneOptions;
+import org.hibernate.search.bridge.TwoWayFieldBridge;
+
+/**
+ * N-Gram子串搜索桥接器。<br/>
+ * 字段值按原样索引到原字段（保持精确过滤和排序不变），同时经{@link NGramAnalyzer}切分后索引到“字段名_ngram”字段。
+ * 用于标注为Analyze.NO的字符串字段，FullTextCriteria会自动识别并使用词条查询代替前置通配符查询。
+ */
+public class NGramBridge implements TwoWayFieldBridge {
+	/** N-Gram索引字段名后缀 */
+	public static final String FIELD_SUFFIX = "_ngram";
+	private static final NGramAnalyzer ANALYZER = new NGramAnalyzer();
+
+	@Override
+	public void set(String name, Object value, Document document,
+			LuceneOptions luceneOptions) {
+		if (value == null) {
+			return;
+		}
+		String text = value.toString();
+		luceneOptions.addFieldToDocument(name, text, document);
+		Field ngramField = new Field(name + FIELD_SUFFIX,
+				ANALYZER.tokenStream(name, new StringReader(text)));
+		ngramField.setOmitNorms(true);
+		document.add(ngramField);
+	}
+
+	@Override
+	public Object get(String name, Document document) {
+		return document.get(name);
+	}
+
+	@Override
+	public String objectToString(Object object) {
+		return object == null ? null : object.toString();
+	}
+}
@@ -0,0 +1,36 @@
+package coo.core.hibernate.search;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.document.NumericField;
+import org.hibernate.search.bridge.LuceneOptions;
+import org.hibernate.search.bridge.TwoWayFieldBridge;
+
+/**
+ * Integer/Long/Float/Double类型字段按数值（Trie编码）进行全文索引的桥接器。<br/>
+ * 数值按精度步长分级索引，可以通过FullTextCriteria.addRangeFilter在索引内高效地进行范围过滤，排序时使用对应的SortField数值类型。
+ */
+public class NumericBridge implements TwoWayFieldBridge {
+	@Override
+	public void set(String name, Object value, Document document,
+			LuceneOptions luceneOptions) {
+		if (value == null) {
+			return;
+		}
+		luceneOptions.addNumericFieldToDocument(name, value, document);
+	}
+
+	@Override
+	public Object get(String name, Document document) {
+		Fieldable field = document.getFieldable(name);
+		if (field instanceof NumericField) {
+			return ((NumericField) field).getNumericValue();
+		}
+		return null;
+	}
+
+	@Override
+	public String objectToString(Object object) {
+		return object == null ? null : object.toString();
+	}
+}
@@ -0,0 +1,110 @@
+package coo.core.hibernate.search;
+
+import java.lang.reflect.Field;
+import java.util.List;
+
+import javax.persistence.Id;
+
+import org.hibernate.HibernateException;
+import org.hibernate.search.ProjectionConstants;
+import org.hibernate.search.annotations.DocumentId;
+import org.hibernate.transform.ResultTransformer;
+
+import coo.base.util.BeanUtils;
+
+/**
+ * 全文搜索投影结果转换器。<br/>
+ * 将索引中存储的字段值填充到新建的实体对象（游离状态，不关联Session）中，关联对象的字段按“属性名.字段名”逐级创建并填充。<br/>
+ * 转换得到的对象只包含投影的字段，只能用于列表展示等只读场景，不能用于更新或访问未投影的属性。
+ */
+public class ProjectionResultTransformer implements ResultTransformer {
+	private static final long serialVersionUID = 3716208349925513208L;
+	private Class<?> clazz;
+	/** 实体ID的属性名 */
+	private String idName;
+
+	/**
+	 * 构造方法。
+	 * 
+	 * @param clazz
+	 *            实体class
+	 */
+	public ProjectionResultTransformer(Class<?> clazz) {
+		this.clazz = clazz;
+		this.idName = getIdName(clazz);
+	}
+
+	@Override
+	public Object transformTuple(Object[] tuple, String[] aliases) {
+		Object row = newInstance(clazz);
+		for (int i = 0; i < aliases.length; i++) {
+			if (ProjectionConstants.ID.equals(aliases[i])) {
+				BeanUtils.setField(row, idName, tuple[i]);
+			} else if (tuple[i] != null) {
+				setPath(row, aliases[i], tuple[i]);
+			}
+		}
+		return row;
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	public List transformList(List collection) {
+		return collection;
+	}
+
+	/**
+	 * 按“属性名.字段名”的路径设置对象的属性值，路径中的关联对象为空时自动创建。
+	 * 
+	 * @param target
+	 *            对象
+	 * @param path
+	 *            属性路径
+	 * @param value
+	 *            属性值
+	 */
+	private void setPath(Object target, String path, Object value) {
+		String[] names = path.split("\\.");
+		for (int i = 0; i < names.length - 1; i++) {
+			Field field = BeanUtils.findField(target.getClass(), names[i]);
+			Object child = BeanUtils.getField(target, field);
+			if (child == null) {
+				child = newInstance(field.getType());
+				BeanUtils.setField(target, field, child);
+			}
+			target = child;
+		}
+		BeanUtils.setField(target, names[names.length - 1], value);
+	}
+
+	/**
+	 * 创建对象实例。
+	 * 
+	 * @param type
+	 *            对象class
+	 * @return 返回新建的对象实例。
+	 */
+	private Object newInstance(Class<?> type) {
+		try {
+			return type.newInstance();
+		} catch (Exception e) {
+			throw new HibernateException("创建投影结果对象 " + type.getName()
+					+ " 时发生异常", e);
+		}
+	}
+
+	/**
+	 * 获取实体ID的属性名。
+	 * 
+	 * @param clazz
+	 *            实体class
+	 * @return 返回实体ID的属性名。
+	 */
+	private String getIdName(Class<?> clazz) {
+		List<Field> idFields = BeanUtils.findField(clazz, DocumentId.class);
+		if (idFields.isEmpty()) {
+			idFields = BeanUtils.findField(clazz, Id.class);
+		}
+		return idFields.isEmpty() ? "id" : idFields.get(0).getName();
+	}
+}
@@ -0,0 +1,134 @@
+package coo.core.hibernate.search;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.store.Directory;
+import org.hibernate.search.SearchException;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.indexes.spi.DirectoryBasedReaderProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 定时刷新的全文索引Reader提供者。<br/>
+ * 所有搜索共享同一个IndexReader，距上次刷新超过刷新间隔时才检查索引是否有新的提交并增量重新打开，两次刷新之间的搜索直接复用当前Reader，不访问索引目录。<br/>
+ * 刷新间隔通过hibernate.search.[default|索引名].reader.refresh_interval（毫秒）设置，默认为1000毫秒，小于等于0时每次搜索都检查，
+ * 新提交的索引变更最迟在一个刷新间隔后可以被搜索到。<br/>
+ * 同一时间只有一个搜索线程执行刷新，其它搜索线程不等待刷新完成，直接使用当前Reader。
+ */
+public class RefreshingReaderProvider implements DirectoryBasedReaderProvider {
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	private Directory directory;
+	private String indexName;
+	/** 刷新间隔（毫秒） */
+	private Long refreshInterval;
+	/** 刷新锁 */
+	private Lock refreshLock = new ReentrantLock();
+	/** 当前Reader，本对象持有其一个引用 */
+	private volatile IndexReader current;
+	/** 上次刷新的时间 */
+	private volatile Long lastRefreshTime;
+	/** 是否已停止 */
+	private volatile Boolean stopped = false;
+
+	@Override
+	public void initialize(DirectoryBasedIndexManager indexManager,
+			Properties props) {
+		directory = indexManager.getDirectoryProvider().getDirectory();
+		indexName = indexManager.getIndexName();
+		String interval = props.getProperty("refresh_interval");
+		refreshInterval = interval == null ? 1000L : Long.valueOf(interval
+				.trim());
+		try {
+			current = IndexReader.open(directory);
+		} catch (IOException e) {
+			throw new SearchException("打开全文索引 " + indexName + " 时发生异常。", e);
+		}
+		lastRefreshTime = System.currentTimeMillis();
+	}
+
+	@Override
+	public IndexReader openIndexReader() {
+		checkStopped();
+		if (System.currentTimeMillis() - lastRefreshTime >= refreshInterval) {
+			refresh();
+		}
+		IndexReader reader = current;
+		// 刷新替换Reader的间隙中旧Reader可能已关闭，重新获取当前Reader；停止后当前Reader不再被替换
+		while (!reader.tryIncRef()) {
+			checkStopped();
+			reader = current;
+		}
+		return reader;
+	}
+
+	@Override
+	public void closeIndexReader(IndexReader reader) {
+		if (reader == null) {
+			return;
+		}
+		try {
+			reader.decRef();
+		} catch (IOException e) {
+			log.warn("关闭全文索引 " + indexName + " 的Reader时发生异常。", e);
+		}
+	}
+
+	@Override
+	public void stop() {
+		refreshLock.lock();
+		try {
+			stopped = true;
+			closeIndexReader(current);
+		} finally {
+			refreshLock.unlock();
+		}
+	}
+
+	/**
+	 * 检查是否已停止。
+	 * 
+	 * @throws SearchException
+	 *             已停止时抛出
+	 */
+	private void checkStopped() {
+		if (stopped) {
+			throw new SearchException("全文索引 " + indexName + " 的Reader提供者已停止。");
+		}
+	}
+
+	/**
+	 * 检查索引是否有新的提交，有则增量重新打开Reader替换当前Reader，旧Reader在正在进行的搜索全部结束后关闭。<br/>
+	 * 其它线程正在刷新时直接返回。
+	 */
+	private void refresh() {
+		if (!refreshLock.tryLock()) {
+			return;
+		}
+		try {
+			if (stopped) {
+				return;
+			}
+			if (refreshInterval > 0
+					&& System.currentTimeMillis() - lastRefreshTime < refreshInterval) {
+				return;
+			}
+			lastRefreshTime = System.currentTimeMillis();
+			IndexReader reader = IndexReader.openIfChanged(current);
+			if (reader != null) {
+				IndexReader old = current;
+				current = reader;
+				closeIndexReader(old);
+			}
+		} catch (IOException e) {
+			throw new SearchException("刷新全文索引 " + indexName + " 的Reader时发生异常。",
+					e);
+		} finally {
+			refreshLock.unlock();
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package coo.core.hibernate.search;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 输入提示字段注解。<br/>
+ * 标注在业务实体类的字符串字段上，由SuggestionService按该字段值的前缀提供输入提示。
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Suggestible {
+}
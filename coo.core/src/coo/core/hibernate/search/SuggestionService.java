@@ -0,0 +1,452 @@
+package coo.core.hibernate.search;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.metadata.ClassMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import coo.base.exception.UncheckedException;
+import coo.base.model.Suggestion;
+import coo.base.util.BeanUtils;
+import coo.base.util.StringUtils;
+import coo.core.hibernate.dao.BulkWriteListener;
+
+/**
+ * 输入提示组件。<br/>
+ * 为标注了{@link Suggestible}字段的实体类在内存中维护按字段值排序的前缀字典，按输入的前缀（不区分大小写）返回匹配的实体，用于人员、机构、公司等选择框的输入提示。<br/>
+ * 字典在首次使用时从数据库加载，之后通过Hibernate的新增、更新、删除事件增量维护：事件发生时记录实体的提示文本，事务成功提交后才更新字典，事务回滚或提交失败时丢弃。
+ * 不会触发Hibernate事件的Dao批量操作通过{@link BulkWriteListener}使字典失效，在下次使用时重新加载；Dao以外的批量操作需要调用invalidate方法。
+ */
+public class SuggestionService implements PostInsertEventListener,
+		PostUpdateEventListener, PostDeleteEventListener, BulkWriteListener {
+	private static final long serialVersionUID = 6135405936718426127L;
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	@Resource
+	private SessionFactory sessionFactory;
+	/** 默认返回的最大提示项数 */
+	private Integer size = 10;
+	/** 单次请求允许返回的最大提示项数 */
+	private Integer maxSize = 50;
+	/** 允许按简单类名获取提示项的实体类，多个以逗号分隔 */
+	private String entityNames = "";
+	/** 各实体类的提示字段 */
+	private Map<Class<?>, List<Field>> suggestibleFields = new HashMap<Class<?>, List<Field>>();
+	/** 各实体类的前缀字典 */
+	private ConcurrentMap<Class<?>, Dictionary> dictionaries = new ConcurrentHashMap<Class<?>, Dictionary>();
+
+	/**
+	 * 查找标注了提示字段的实体类，并在Hibernate中注册实体写操作事件监听器。
+	 */
+	@PostConstruct
+	public void registerListeners() {
+		for (ClassMetadata metadata : sessionFactory.getAllClassMetadata()
+				.values()) {
+			Class<?> entityClass = metadata.getMappedClass();
+			List<Field> fields = BeanUtils.findField(entityClass,
+					Suggestible.class);
+			if (!fields.isEmpty()) {
+				suggestibleFields.put(entityClass, fields);
+			}
+		}
+		EventListenerRegistry registry = ((SessionFactoryImplementor) sessionFactory)
+				.getServiceRegistry().getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_INSERT, this);
+		registry.appendListeners(EventType.POST_UPDATE, this);
+		registry.appendListeners(EventType.POST_DELETE, this);
+	}
+
+	/**
+	 * 按前缀获取输入提示项，用于对外提供的请求。只接受entityNames中列出的实体类。
+	 * 
+	 * @param entityName
+	 *            实体类的简单类名
+	 * @param prefix
+	 *            前缀
+	 * @param size
+	 *            最大提示项数，为null时使用默认值，超过maxSize时按maxSize返回
+	 * @return 返回按提示文本排序的输入提示项，同一实体只返回一项；实体类不在entityNames中或没有提示字段时返回空列表。
+	 */
+	public List<Suggestion> suggest(String entityName, String prefix,
+			Integer size) {
+		if (!isAllowed(entityName)) {
+			return new ArrayList<Suggestion>();
+		}
+		for (Class<?> entityClass : suggestibleFields.keySet()) {
+			if (entityClass.getSimpleName().equals(entityName)) {
+				return suggest(entityClass, prefix, size);
+			}
+		}
+		return new ArrayList<Suggestion>();
+	}
+
+	/**
+	 * 按前缀获取输入提示项。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param prefix
+	 *            前缀
+	 * @param size
+	 *            最大提示项数，为null时使用默认值，超过maxSize时按maxSize返回
+	 * @return 返回按提示文本排序的输入提示项，同一实体只返回一项；实体类没有提示字段时返回空列表。
+	 */
+	public List<Suggestion> suggest(Class<?> entityClass, String prefix,
+			Integer size) {
+		if (!suggestibleFields.containsKey(entityClass)
+				|| StringUtils.isBlank(prefix)) {
+			return new ArrayList<Suggestion>();
+		}
+		if (size == null || size <= 0) {
+			size = this.size;
+		}
+		return getDictionary(entityClass).search(prefix.trim(),
+				Math.min(size, maxSize));
+	}
+
+	/**
+	 * 使指定实体类的前缀字典失效，下次使用时重新从数据库加载。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 */
+	public void invalidate(Class<?> entityClass) {
+		dictionaries.remove(entityClass);
+	}
+
+	@Override
+	public void onBulkWrite(Class<?> entityClass) {
+		invalidate(entityClass);
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		updateAfterCommit(event.getSession(), event.getPersister()
+				.getMappedClass(), event.getId(), event.getEntity());
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		updateAfterCommit(event.getSession(), event.getPersister()
+				.getMappedClass(), event.getId(), event.getEntity());
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		updateAfterCommit(event.getSession(), event.getPersister()
+				.getMappedClass(), event.getId(), null);
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public void setSize(Integer size) {
+		this.size = size;
+	}
+
+	public Integer getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(Integer maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public String getEntityNames() {
+		return entityNames;
+	}
+
+	public void setEntityNames(String entityNames) {
+		this.entityNames = entityNames;
+	}
+
+	/**
+	 * 判断实体类是否允许按简单类名获取提示项。
+	 * 
+	 * @param entityName
+	 *            实体类的简单类名
+	 * @return 如果实体类在entityNames中返回true，否则返回false。
+	 */
+	private Boolean isAllowed(String entityName) {
+		if (StringUtils.isBlank(entityName)) {
+			return false;
+		}
+		for (String allowedName : entityNames.split(",")) {
+			if (allowedName.trim().equals(entityName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 记录实体当前的提示文本，在事务成功提交后更新前缀字典。
+	 * 
+	 * @param session
+	 *            触发事件的Session
+	 * @param entityClass
+	 *            实体类
+	 * @param id
+	 *            实体ID
+	 * @param entity
+	 *            实体对象，删除时为null
+	 */
+	private void updateAfterCommit(EventSource session,
+			final Class<?> entityClass, final Serializable id, Object entity) {
+		if (!suggestibleFields.containsKey(entityClass)) {
+			return;
+		}
+		final Map<String, String> values = new LinkedHashMap<String, String>();
+		if (entity != null) {
+			for (Field field : suggestibleFields.get(entityClass)) {
+				values.put(field.getName(),
+						(String) BeanUtils.getField(entity, field));
+			}
+		}
+		session.getActionQueue().registerProcess(
+				new AfterTransactionCompletionProcess() {
+					@Override
+					public void doAfterTransactionCompletion(boolean success,
+							SessionImplementor session) {
+						if (success) {
+							update(entityClass, id, values);
+						}
+					}
+				});
+	}
+
+	/**
+	 * 更新前缀字典中的实体。字典尚未加载时忽略。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param id
+	 *            实体ID
+	 * @param values
+	 *            “字段名-提示文本”，删除时为空
+	 */
+	private void update(Class<?> entityClass, Serializable id,
+			Map<String, String> values) {
+		Dictionary dictionary = dictionaries.get(entityClass);
+		if (dictionary != null) {
+			dictionary.update(id, values);
+		}
+	}
+
+	/**
+	 * 获取实体类的前缀字典，不存在时从数据库加载。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @return 返回实体类的前缀字典。
+	 */
+	private Dictionary getDictionary(Class<?> entityClass) {
+		Dictionary dictionary = dictionaries.get(entityClass);
+		if (dictionary == null) {
+			Dictionary newDictionary = new Dictionary();
+			dictionary = dictionaries.putIfAbsent(entityClass, newDictionary);
+			if (dictionary == null) {
+				dictionary = newDictionary;
+				load(entityClass, dictionary);
+			}
+		}
+		dictionary.awaitLoaded();
+		return dictionary;
+	}
+
+	/**
+	 * 从数据库加载实体类的前缀字典。
+	 * 
+	 * @param entityClass
+	 *            实体类
+	 * @param dictionary
+	 *            前缀字典
+	 */
+	private void load(Class<?> entityClass, Dictionary dictionary) {
+		long start = System.currentTimeMillis();
+		List<Field> fields = suggestibleFields.get(entityClass);
+		ClassMetadata metadata = sessionFactory.getClassMetadata(entityClass);
+		StringBuilder hql = new StringBuilder("select e."
+				+ metadata.getIdentifierPropertyName());
+		for (Field field : fields) {
+			hql.append(", e." + field.getName());
+		}
+		hql.append(" from " + metadata.getEntityName() + " e");
+		StatelessSession session = sessionFactory.openStatelessSession();
+		try {
+			ScrollableResults results = session.createQuery(hql.toString())
+					.scroll(ScrollMode.FORWARD_ONLY);
+			try {
+				while (results.next()) {
+					Map<String, String> values = new LinkedHashMap<String, String>();
+					for (int i = 0; i < fields.size(); i++) {
+						values.put(fields.get(i).getName(),
+								(String) results.get(i + 1));
+					}
+					dictionary.load((Serializable) results.get(0), values);
+				}
+			} finally {
+				results.close();
+			}
+			log.debug("加载[{}]输入提示字典耗时{}毫秒。", entityClass.getSimpleName(),
+					System.currentTimeMillis() - start);
+		} catch (Exception e) {
+			dictionaries.remove(entityClass, dictionary);
+			throw new UncheckedException("加载[" + entityClass.getSimpleName()
+					+ "]输入提示字典时发生异常。", e);
+		} finally {
+			dictionary.loaded();
+			session.close();
+		}
+	}
+
+	/**
+	 * 前缀字典。<br/>
+	 * 以“小写提示文本+\0+实体ID”为键按字典序保存提示项，前缀匹配时取键在[前缀, 前缀+最大字符)之间的部分。
+	 */
+	private static class Dictionary {
+		private ConcurrentNavigableMap<String, Suggestion> entries = new ConcurrentSkipListMap<String, Suggestion>();
+		/** 各实体在字典中的键，用于更新和删除 */
+		private Map<Serializable, List<String>> keys = new HashMap<Serializable, List<String>>();
+		/** 加载期间通过事件更新过的实体ID，加载时不再覆盖 */
+		private Set<Serializable> updatedIds = new HashSet<Serializable>();
+		private CountDownLatch latch = new CountDownLatch(1);
+
+		/**
+		 * 按前缀查找提示项。
+		 * 
+		 * @param prefix
+		 *            前缀
+		 * @param size
+		 *            最大提示项数
+		 * @return 返回匹配的提示项。
+		 */
+		private List<Suggestion> search(String prefix, Integer size) {
+			String from = prefix.toLowerCase();
+			Map<Serializable, Suggestion> matches = new LinkedHashMap<Serializable, Suggestion>();
+			for (Suggestion suggestion : entries.subMap(from, from + '\uffff')
+					.values()) {
+				if (matches.size() >= size) {
+					break;
+				}
+				if (!matches.containsKey(suggestion.getId())) {
+					matches.put(suggestion.getId(), suggestion);
+				}
+			}
+			return new ArrayList<Suggestion>(matches.values());
+		}
+
+		/**
+		 * 加载实体。实体在加载期间已通过事件更新时忽略。
+		 * 
+		 * @param id
+		 *            实体ID
+		 * @param values
+		 *            “字段名-提示文本”
+		 */
+		private synchronized void load(Serializable id,
+				Map<String, String> values) {
+			if (!updatedIds.contains(id)) {
+				put(id, values);
+			}
+		}
+
+		/**
+		 * 更新实体。
+		 * 
+		 * @param id
+		 *            实体ID
+		 * @param values
+		 *            “字段名-提示文本”，为空时删除实体
+		 */
+		private synchronized void update(Serializable id,
+				Map<String, String> values) {
+			if (latch.getCount() > 0) {
+				updatedIds.add(id);
+			}
+			put(id, values);
+		}
+
+		/**
+		 * 标记加载完成。
+		 */
+		private synchronized void loaded() {
+			updatedIds.clear();
+			latch.countDown();
+		}
+
+		/**
+		 * 等待加载完成。
+		 */
+		private void awaitLoaded() {
+			try {
+				latch.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new UncheckedException("等待输入提示字典加载时线程被中断。", e);
+			}
+		}
+
+		/**
+		 * 替换实体的提示项。
+		 * 
+		 * @param id
+		 *            实体ID
+		 * @param values
+		 *            “字段名-提示文本”
+		 */
+		private void put(Serializable id, Map<String, String> values) {
+			List<String> oldKeys = keys.remove(id);
+			if (oldKeys != null) {
+				for (String key : oldKeys) {
+					entries.remove(key);
+				}
+			}
+			List<String> newKeys = new ArrayList<String>();
+			for (Map.Entry<String, String> value : values.entrySet()) {
+				if (StringUtils.isNotBlank(value.getValue())) {
+					String key = value.getValue().toLowerCase() + '\0' + id;
+					entries.put(key, new Suggestion(id, value.getValue(),
+							value.getKey()));
+					newKeys.add(key);
+				}
+			}
+			if (!newKeys.isEmpty()) {
+				keys.put(id, newKeys);
+			}
+		}
+	}
+}
@@ -5,6 +5,9 @@ import java.lang.reflect.Field;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.persistence.Column;
 
@@ -12,16 +15,46 @@ import org.apache.commons.lang.StringUtils;
 import org.hibernate.HibernateException;
 import org.hibernate.annotations.Type;
 import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.internal.util.ReflectHelper;
 import org.hibernate.type.StringType;
+import org.hibernate.usertype.DynamicParameterizedType;
 import org.hibernate.usertype.UserType;
 
 import coo.base.exception.UncheckedException;
 import coo.base.util.BeanUtils;
 
 /**
- * 用户自定义类型抽象基类。
+ * 用户自定义类型抽象基类。<br/>
+ * 通过注解映射时，Hibernate为每个属性创建独立的类型实例并传入实体类和属性名，对应的属性对象在映射时确定，读取记录时不再需要反射查找。
+ * 无法在映射时确定属性时，按“实体类-字段名”缓存首次从结果集中解析出的属性对象。
  */
-public abstract class AbstractUserType implements UserType {
+public abstract class AbstractUserType implements UserType,
+		DynamicParameterizedType {
+	/** 映射时无法确定属性时，按“实体类-字段名”缓存的属性对象 */
+	private static final ConcurrentMap<String, Field> COLUMN_FIELDS = new ConcurrentHashMap<String, Field>();
+	/** 属性对象的泛型类型缓存 */
+	private static final ConcurrentMap<Field, Class<?>> GENERIC_FIELD_TYPES = new ConcurrentHashMap<Field, Class<?>>();
+	/** 映射时确定的属性对象 */
+	private Field field;
+
+	@Override
+	public void setParameterValues(Properties parameters) {
+		if (parameters == null) {
+			return;
+		}
+		String entityName = parameters.getProperty(ENTITY);
+		String propertyName = parameters.getProperty(PROPERTY);
+		if (StringUtils.isNotBlank(entityName)
+				&& StringUtils.isNotBlank(propertyName)) {
+			try {
+				field = BeanUtils.findField(
+						ReflectHelper.classForName(entityName), propertyName);
+			} catch (ClassNotFoundException e) {
+				throw new HibernateException("没有找到实体类" + entityName + "。", e);
+			}
+		}
+	}
+
 	/**
 	 * 根据字段标签名获取源对象中对应字段的属性对象。
 	 * 
@@ -34,32 +67,47 @@ public abstract class AbstractUserType implements UserType {
 	 * @return 返回源对象中对应字段的属性对象。
 	 */
 	protected Field getField(ResultSet rs, String columnLabel, Object owner) {
+		if (field != null) {
+			return field;
+		}
 		try {
 			String columnName = rs.getMetaData().getColumnName(
 					rs.findColumn(columnLabel));
-			// 如果使用了@Column注解，优先用@Column注解设定的名称进行匹配
-			for (Field field : BeanUtils.findField(owner.getClass(),
-					Column.class)) {
-				Column column = field.getAnnotation(Column.class);
-				if (StringUtils.isNotBlank(column.name())
-						&& column.name().equalsIgnoreCase(columnName)) {
-					return field;
-				}
+			String key = owner.getClass().getName() + ":"
+					+ columnName.toLowerCase();
+			Field columnField = COLUMN_FIELDS.get(key);
+			if (columnField == null) {
+				columnField = findField(owner.getClass(), columnName);
+				COLUMN_FIELDS.put(key, columnField);
 			}
-			// 如果从@Column注解没有找到则从全部属性中进行匹配
-			for (Field field : BeanUtils.getAllDeclaredField(owner.getClass())) {
-				if (field.isAnnotationPresent(Type.class)
-						&& field.getName().equalsIgnoreCase(columnName)) {
-					return field;
-				}
-			}
-			throw new UncheckedException("没有找到" + owner.getClass() + "中对应"
-					+ columnName + "字段的属性。");
+			return columnField;
 		} catch (Exception e) {
 			throw new UncheckedException("获取字段名时发生异常。", e);
 		}
 	}
 
+	/**
+	 * 根据字段标签名获取源对象中对应字段的属性对象的泛型类型。
+	 * 
+	 * @param rs
+	 *            数据结果集
+	 * @param columnLabel
+	 *            Hibernate生成SQL中的字段标签
+	 * @param owner
+	 *            源对象
+	 * @return 返回源对象中对应字段的属性对象的泛型类型。
+	 */
+	protected Class<?> getGenericFieldType(ResultSet rs, String columnLabel,
+			Object owner) {
+		Field genericField = getField(rs, columnLabel, owner);
+		Class<?> genericFieldType = GENERIC_FIELD_TYPES.get(genericField);
+		if (genericFieldType == null) {
+			genericFieldType = BeanUtils.getGenericFieldType(genericField);
+			GENERIC_FIELD_TYPES.put(genericField, genericFieldType);
+		}
+		return genericFieldType;
+	}
+
 	/**
 	 * 获取指定字段的值。
 	 * 
@@ -138,4 +186,33 @@ public abstract class AbstractUserType implements UserType {
 	public Object replace(Object original, Object target, Object owner) {
 		return original;
 	}
+
+	/**
+	 * 从实体类中查找字段名对应的属性对象。
+	 * 
+	 * @param ownerClass
+	 *            实体类
+	 * @param columnName
+	 *            字段名
+	 * @return 返回字段名对应的属性对象。
+	 */
+	private Field findField(Class<?> ownerClass, String columnName) {
+		// 如果使用了@Column注解，优先用@Column注解设定的名称进行匹配
+		for (Field field : BeanUtils.findField(ownerClass, Column.class)) {
+			Column column = field.getAnnotation(Column.class);
+			if (StringUtils.isNotBlank(column.name())
+					&& column.name().equalsIgnoreCase(columnName)) {
+				return field;
+			}
+		}
+		// 如果从@Column注解没有找到则从全部属性中进行匹配
+		for (Field field : BeanUtils.getAllDeclaredField(ownerClass)) {
+			if (field.isAnnotationPresent(Type.class)
+					&& field.getName().equalsIgnoreCase(columnName)) {
+				return field;
+			}
+		}
+		throw new UncheckedException("没有找到" + ownerClass + "中对应" + columnName
+				+ "字段的属性。");
+	}
 }
@@ -1,6 +1,5 @@
 package coo.core.hibernate.usertype;
 
-import java.lang.reflect.Field;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -12,7 +11,6 @@ import org.hibernate.HibernateException;
 import org.hibernate.engine.spi.SessionImplementor;
 
 import coo.base.constants.Chars;
-import coo.base.util.BeanUtils;
 import coo.base.util.CollectionUtils;
 import coo.base.util.StringUtils;
 import coo.core.model.IEnum;
@@ -31,9 +29,8 @@ public class IEnumListUserType extends AbstractUserType {
 		try {
 			String value = getValue(rs, names[0], session);
 			if (value != null) {
-				Field field = getField(rs, names[0], owner);
-				Class<? extends IEnum> enumClass = (Class<? extends IEnum>) BeanUtils
-						.getGenericFieldType(field);
+				Class<? extends IEnum> enumClass = (Class<? extends IEnum>) getGenericFieldType(
+						rs, names[0], owner);
 				List<IEnum> enums = new ArrayList<IEnum>();
 				for (String enumValue : value.toString().split(Chars.COMMA)) {
 					enums.add(IEnumUtils.getIEnumByValue(enumClass, enumValue));
@@ -1,6 +1,5 @@
 package coo.core.hibernate.usertype;
 
-import java.lang.reflect.Field;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -13,7 +12,6 @@ import org.hibernate.engine.spi.SessionImplementor;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import coo.base.util.BeanUtils;
 import coo.base.util.CollectionUtils;
 
 /**
@@ -31,8 +29,7 @@ public class JsonListUserType extends AbstractUserType {
 			if (value == null) {
 				value = "[]";
 			}
-			Field jsonField = getField(rs, names[0], owner);
-			Class<?> beanClass = BeanUtils.getGenericFieldType(jsonField);
+			Class<?> beanClass = getGenericFieldType(rs, names[0], owner);
 			JavaType type = mapper.getTypeFactory().constructCollectionType(
 					List.class, beanClass);
 			return mapper.readValue(value, type);
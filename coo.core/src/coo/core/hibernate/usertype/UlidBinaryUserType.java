@@ -0,0 +1,48 @@
+package coo.core.hibernate.usertype;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.hibernate.engine.spi.SessionImplementor;
+
+import coo.core.model.UlidGenerator;
+
+/**
+ * ULID二进制自定义类型，将ULID字符串以16字节二进制形式存储。
+ */
+public class UlidBinaryUserType extends AbstractUserType {
+	private static final int[] SQL_TYPES = new int[] { Types.BINARY };
+
+	@Override
+	public Object nullSafeGet(ResultSet rs, String[] names,
+			SessionImplementor session, Object owner) throws SQLException {
+		byte[] value = rs.getBytes(names[0]);
+		if (value != null) {
+			return UlidGenerator.fromBytes(value);
+		} else {
+			return null;
+		}
+	}
+
+	@Override
+	public void nullSafeSet(PreparedStatement st, Object value, int index,
+			SessionImplementor session) throws SQLException {
+		if (value != null) {
+			st.setBytes(index, UlidGenerator.toBytes(value.toString()));
+		} else {
+			st.setNull(index, Types.BINARY);
+		}
+	}
+
+	@Override
+	public Class<?> returnedClass() {
+		return String.class;
+	}
+
+	@Override
+	public int[] sqlTypes() {
+		return SQL_TYPES;
+	}
+}
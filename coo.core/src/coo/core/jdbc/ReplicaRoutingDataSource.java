@@ -0,0 +1,273 @@
+package coo.core.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.tomcat.jdbc.pool.PoolConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import coo.base.constants.Chars;
+import coo.base.util.Assert;
+import coo.base.util.StringUtils;
+
+/**
+ * 读写分离路由数据源。<br/>
+ * 只读事务（@Transactional(readOnly = true)）路由到从库，其它情况路由到主库。<br/>
+ * 后台线程定时检查从库的可用性和复制延迟，不可用或延迟超过阈值的从库将被暂时摘除，没有可用从库时回退到主库。<br/>
+ * 事务开始时还无法确定事务是否只读，因此该数据源必须由LazyConnectionDataSourceProxy包装后使用，使物理连接延迟到执行第一条语句时获取。
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource
+		implements DisposableBean {
+	private static final String PRIMARY = "primary";
+	private static final String REPLICA = "replica";
+	/** 当前事务已路由到从库的标记资源键 */
+	private static final String ROUTED_TO_REPLICA = ReplicaRoutingDataSource.class
+			.getName() + ".ROUTED_TO_REPLICA";
+	private final Logger log = LoggerFactory.getLogger(getClass());
+	/** 主库数据源 */
+	private DataSource primaryDataSource;
+	/** 从库数据源 */
+	private List<DataSource> replicaDataSources = new ArrayList<DataSource>();
+	/** 从库连接地址，多个地址用","分割，从库的其它连接参数与主库相同 */
+	private String replicaUrls;
+	/** 查询从库复制延迟（秒）的SQL语句，为空时只检查从库是否可用 */
+	private String lagQuery;
+	/** 允许的最大复制延迟（秒） */
+	private Integer maxLag = 5;
+	/** 从库检查间隔（秒） */
+	private Integer checkInterval = 10;
+	/** 当前可用的从库 */
+	private List<String> availableReplicas = new CopyOnWriteArrayList<String>();
+	private AtomicInteger counter = new AtomicInteger();
+	private ScheduledExecutorService checker;
+
+	@Override
+	public void afterPropertiesSet() {
+		Assert.notNull(primaryDataSource, "必须指定主库数据源。");
+		if (StringUtils.isNotBlank(replicaUrls)) {
+			for (String replicaUrl : replicaUrls.split(Chars.COMMA)) {
+				replicaDataSources.add(createReplica(replicaUrl.trim()));
+			}
+		}
+		Map<Object, Object> targetDataSources = new HashMap<Object, Object>();
+		targetDataSources.put(PRIMARY, primaryDataSource);
+		for (int i = 0; i < replicaDataSources.size(); i++) {
+			targetDataSources.put(REPLICA + i, replicaDataSources.get(i));
+		}
+		setTargetDataSources(targetDataSources);
+		setDefaultTargetDataSource(primaryDataSource);
+		super.afterPropertiesSet();
+
+		if (!replicaDataSources.isEmpty()) {
+			checkReplicas();
+			checker = Executors
+					.newSingleThreadScheduledExecutor(new ThreadFactory() {
+						@Override
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"coo-replica-checker");
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			checker.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					checkReplicas();
+				}
+			}, checkInterval, checkInterval, TimeUnit.SECONDS);
+		}
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (TransactionSynchronizationManager.isActualTransactionActive()
+				&& TransactionSynchronizationManager
+						.isCurrentTransactionReadOnly()) {
+			List<String> replicas = availableReplicas;
+			if (!replicas.isEmpty()) {
+				int index = (counter.getAndIncrement() & Integer.MAX_VALUE)
+						% replicas.size();
+				markRoutedToReplica();
+				return replicas.get(index);
+			}
+		}
+		return PRIMARY;
+	}
+
+	/**
+	 * 判断当前事务是否已路由到从库。<br/>
+	 * 从库的数据可能落后于主库，从从库读取的查询结果不应写入随实体写操作失效的缓存，否则过时的结果会在缓存中一直保留到过期。
+	 * 
+	 * @return 如果当前事务已从从库获取连接返回true，否则返回false。
+	 */
+	public static Boolean isRoutedToReplica() {
+		return TransactionSynchronizationManager.hasResource(ROUTED_TO_REPLICA);
+	}
+
+	/**
+	 * 标记当前事务已路由到从库，事务结束时清除标记。
+	 */
+	private void markRoutedToReplica() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()
+				|| TransactionSynchronizationManager
+						.hasResource(ROUTED_TO_REPLICA)) {
+			return;
+		}
+		TransactionSynchronizationManager.bindResource(ROUTED_TO_REPLICA,
+				Boolean.TRUE);
+		TransactionSynchronizationManager
+				.registerSynchronization(new TransactionSynchronizationAdapter() {
+					@Override
+					public void afterCompletion(int status) {
+						TransactionSynchronizationManager
+								.unbindResourceIfPossible(ROUTED_TO_REPLICA);
+					}
+				});
+	}
+
+	/**
+	 * 检查所有从库的可用性和复制延迟，更新可用从库列表。
+	 */
+	public void checkReplicas() {
+		List<String> replicas = new ArrayList<String>();
+		for (int i = 0; i < replicaDataSources.size(); i++) {
+			Boolean available = isAvailable(replicaDataSources.get(i));
+			if (available) {
+				replicas.add(REPLICA + i);
+			}
+			if (available != availableReplicas.contains(REPLICA + i)) {
+				log.warn("从库[" + REPLICA + i + "]"
+						+ (available ? "可用。" : "不可用，读请求将不再路由到该从库。"));
+			}
+		}
+		availableReplicas = new CopyOnWriteArrayList<String>(replicas);
+	}
+
+	/**
+	 * 判断从库是否可用。
+	 * 
+	 * @param replica
+	 *            从库数据源
+	 * @return 如果从库可以连接且复制延迟不超过阈值返回true，否则返回false。
+	 */
+	private Boolean isAvailable(DataSource replica) {
+		Connection conn = null;
+		try {
+			conn = replica.getConnection();
+			if (StringUtils.isBlank(lagQuery)) {
+				return conn.isValid(checkInterval);
+			}
+			Statement stmt = conn.createStatement();
+			try {
+				ResultSet rs = stmt.executeQuery(lagQuery);
+				return rs.next() && rs.getDouble(1) <= maxLag;
+			} finally {
+				stmt.close();
+			}
+		} catch (Exception e) {
+			log.debug("检查从库时发生异常。", e);
+			return false;
+		} finally {
+			closeQuietly(conn);
+		}
+	}
+
+	/**
+	 * 根据主库连接池的配置创建从库连接池。
+	 * 
+	 * @param url
+	 *            从库连接地址
+	 * @return 返回从库连接池。
+	 */
+	private DataSource createReplica(String url) {
+		Assert.isTrue(
+				primaryDataSource instanceof org.apache.tomcat.jdbc.pool.DataSource,
+				"通过连接地址配置从库时主库必须是Tomcat JDBC连接池。");
+		PoolConfiguration config = ((org.apache.tomcat.jdbc.pool.DataSource) primaryDataSource)
+				.getPoolProperties();
+		org.apache.tomcat.jdbc.pool.DataSource replica = new org.apache.tomcat.jdbc.pool.DataSource();
+		replica.setDriverClassName(config.getDriverClassName());
+		replica.setUrl(url);
+		replica.setUsername(config.getUsername());
+		replica.setPassword(config.getPassword());
+		replica.setMaxActive(config.getMaxActive());
+		replica.setMaxIdle(config.getMaxIdle());
+		replica.setMaxWait(config.getMaxWait());
+		return replica;
+	}
+
+	/**
+	 * 关闭数据库连接并忽略异常。
+	 * 
+	 * @param conn
+	 *            数据库连接
+	 */
+	private void closeQuietly(Connection conn) {
+		if (conn != null) {
+			try {
+				conn.close();
+			} catch (Exception e) {
+				log.debug("关闭从库连接时发生异常。", e);
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (checker != null) {
+			checker.shutdownNow();
+		}
+		for (DataSource replica : replicaDataSources) {
+			if (replica instanceof org.apache.tomcat.jdbc.pool.DataSource) {
+				((org.apache.tomcat.jdbc.pool.DataSource) replica).close();
+			}
+		}
+	}
+
+	public List<String> getAvailableReplicas() {
+		return availableReplicas;
+	}
+
+	public void setPrimaryDataSource(DataSource primaryDataSource) {
+		this.primaryDataSource = primaryDataSource;
+	}
+
+	public void setReplicaDataSources(List<DataSource> replicaDataSources) {
+		this.replicaDataSources = replicaDataSources;
+	}
+
+	public void setReplicaUrls(String replicaUrls) {
+		this.replicaUrls = replicaUrls;
+	}
+
+	public void setLagQuery(String lagQuery) {
+		this.lagQuery = lagQuery;
+	}
+
+	public void setMaxLag(Integer maxLag) {
+		this.maxLag = maxLag;
+	}
+
+	public void setCheckInterval(Integer checkInterval) {
+		this.checkInterval = checkInterval;
+	}
+}
@@ -0,0 +1,49 @@
+package coo.core.model;
+
+import javax.persistence.Column;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
+import org.hibernate.search.annotations.DocumentId;
+
+/**
+ * 二进制ULID实体基类。<br/>
+ * 主键在Java中仍为26位ULID字符串，在数据库中以16字节二进制存储，主键索引体积约为UUID字符串的一半。
+ */
+@MappedSuperclass
+public abstract class BinaryUlidEntity {
+	@Id
+	@GeneratedValue(generator = "system-ulid")
+	@GenericGenerator(name = "system-ulid", strategy = "coo.core.model.UlidGenerator")
+	@Type(type = "UlidBinary")
+	@Column(length = 16)
+	@DocumentId
+	protected String id;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (id == null || !(o instanceof BinaryUlidEntity)) {
+			return false;
+		}
+		return id.equals(((BinaryUlidEntity) o).getId());
+	}
+
+	@Override
+	public int hashCode() {
+		return id == null ? System.identityHashCode(this) : id.hashCode();
+	}
+}
@@ -17,6 +17,8 @@ public class SearchModel implements Serializable {
 	protected String sort;
 	/** 全文检索关键字 */
 	protected String keyword;
+	/** 键集分页游标 */
+	protected String cursor;
 
 	public Integer getPageNo() {
 		return pageNo;
@@ -57,4 +59,12 @@ public class SearchModel implements Serializable {
 	public void setKeyword(String keyword) {
 		this.keyword = keyword;
 	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
+	}
 }
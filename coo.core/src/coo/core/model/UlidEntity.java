@@ -0,0 +1,47 @@
+package coo.core.model;
+
+import javax.persistence.Column;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.search.annotations.DocumentId;
+
+/**
+ * ULID实体基类。<br/>
+ * 主键为按时间递增的26位ULID字符串，插入时集中在主键索引末端，适用于写入频繁的大表。
+ */
+@MappedSuperclass
+public abstract class UlidEntity {
+	@Id
+	@GeneratedValue(generator = "system-ulid")
+	@GenericGenerator(name = "system-ulid", strategy = "coo.core.model.UlidGenerator")
+	@Column(length = 26)
+	@DocumentId
+	protected String id;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (id == null || !(o instanceof UlidEntity)) {
+			return false;
+		}
+		return id.equals(((UlidEntity) o).getId());
+	}
+
+	@Override
+	public int hashCode() {
+		return id == null ? System.identityHashCode(this) : id.hashCode();
+	}
+}
@@ -0,0 +1,169 @@
+package coo.core.model;
+
+import java.io.Serializable;
+import java.security.SecureRandom;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import coo.base.exception.UncheckedException;
+
+/**
+ * ULID主键生成器。<br/>
+ * 生成26位Crockford Base32编码的ULID字符串，前48位为毫秒时间戳，后80位为随机数。
+ * 同一毫秒内生成的ID在随机数部分递增，保证ID按生成顺序单调递增，插入时集中在索引末端，避免随机UUID导致的索引页分裂。<br/>
+ * ULID可以无损转换为16字节的二进制形式，二进制形式的字节顺序与字符串的排序一致。
+ */
+public class UlidGenerator implements IdentifierGenerator {
+	private static final char[] ENCODING = "0123456789ABCDEFGHJKMNPQRSTVWXYZ"
+			.toCharArray();
+	private static final int LENGTH = 26;
+	private static final long RANDOM_HIGH_MASK = 0xFFFFL;
+	private static final SecureRandom RANDOM = new SecureRandom();
+	private static long lastTime = -1L;
+	private static long lastRandomHigh;
+	private static long lastRandomLow;
+
+	@Override
+	public Serializable generate(SessionImplementor session, Object object) {
+		return generate();
+	}
+
+	/**
+	 * 生成ULID字符串。
+	 * 
+	 * @return 返回ULID字符串。
+	 */
+	public static synchronized String generate() {
+		long time = System.currentTimeMillis();
+		if (time > lastTime) {
+			lastTime = time;
+			lastRandomHigh = RANDOM.nextInt() & RANDOM_HIGH_MASK;
+			lastRandomLow = RANDOM.nextLong();
+		} else {
+			// 同一毫秒内或时钟回拨时沿用上次的时间戳并递增随机数部分
+			lastRandomLow++;
+			if (lastRandomLow == 0) {
+				lastRandomHigh = (lastRandomHigh + 1) & RANDOM_HIGH_MASK;
+				if (lastRandomHigh == 0) {
+					lastTime++;
+				}
+			}
+		}
+		return encode(lastTime << 16 | lastRandomHigh, lastRandomLow);
+	}
+
+	/**
+	 * 获取ULID中的时间戳。
+	 * 
+	 * @param ulid
+	 *            ULID字符串
+	 * @return 返回ULID生成时的毫秒时间戳。
+	 */
+	public static Long getTimestamp(String ulid) {
+		return toLongs(ulid)[0] >>> 16;
+	}
+
+	/**
+	 * 将ULID字符串转换为16字节的二进制形式。
+	 * 
+	 * @param ulid
+	 *            ULID字符串
+	 * @return 返回16字节的二进制形式。
+	 */
+	public static byte[] toBytes(String ulid) {
+		long[] longs = toLongs(ulid);
+		byte[] bytes = new byte[16];
+		for (int i = 0; i < 8; i++) {
+			bytes[i] = (byte) (longs[0] >>> (56 - i * 8));
+			bytes[i + 8] = (byte) (longs[1] >>> (56 - i * 8));
+		}
+		return bytes;
+	}
+
+	/**
+	 * 将16字节的二进制形式转换为ULID字符串。
+	 * 
+	 * @param bytes
+	 *            16字节的二进制形式
+	 * @return 返回ULID字符串。
+	 */
+	public static String fromBytes(byte[] bytes) {
+		if (bytes == null || bytes.length != 16) {
+			throw new UncheckedException("ULID的二进制形式必须是16字节。");
+		}
+		long msb = 0;
+		long lsb = 0;
+		for (int i = 0; i < 8; i++) {
+			msb = msb << 8 | (bytes[i] & 0xFF);
+			lsb = lsb << 8 | (bytes[i + 8] & 0xFF);
+		}
+		return encode(msb, lsb);
+	}
+
+	/**
+	 * 将128位整数编码为ULID字符串。
+	 * 
+	 * @param msb
+	 *            高64位
+	 * @param lsb
+	 *            低64位
+	 * @return 返回ULID字符串。
+	 */
+	private static String encode(long msb, long lsb) {
+		char[] chars = new char[LENGTH];
+		for (int i = 0; i < LENGTH; i++) {
+			int offset = (LENGTH - 1 - i) * 5;
+			long bits;
+			if (offset >= 64) {
+				bits = msb >>> (offset - 64);
+			} else if (offset > 59) {
+				bits = lsb >>> offset | msb << (64 - offset);
+			} else {
+				bits = lsb >>> offset;
+			}
+			chars[i] = ENCODING[(int) (bits & 31)];
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * 将ULID字符串解码为128位整数。
+	 * 
+	 * @param ulid
+	 *            ULID字符串
+	 * @return 返回高64位和低64位组成的数组。
+	 */
+	private static long[] toLongs(String ulid) {
+		if (ulid == null || ulid.length() != LENGTH || ulid.charAt(0) > '7') {
+			throw new UncheckedException("[" + ulid + "]不是有效的ULID。");
+		}
+		long msb = 0;
+		long lsb = 0;
+		for (int i = 0; i < LENGTH; i++) {
+			int value = decode(Character.toUpperCase(ulid.charAt(i)));
+			if (value < 0) {
+				throw new UncheckedException("[" + ulid + "]不是有效的ULID。");
+			}
+			msb = msb << 5 | lsb >>> 59;
+			lsb = lsb << 5 | value;
+		}
+		return new long[] { msb, lsb };
+	}
+
+	/**
+	 * 获取Base32字符对应的数值。
+	 * 
+	 * @param c
+	 *            Base32字符
+	 * @return 返回字符对应的数值，无效字符返回-1。
+	 */
+	private static int decode(char c) {
+		for (int i = 0; i < ENCODING.length; i++) {
+			if (ENCODING[i] == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -1,7 +1,5 @@
 package coo.core.util;
 
-import java.lang.reflect.Method;
-
 import coo.base.exception.UncheckedException;
 import coo.core.model.IEnum;
 
@@ -21,18 +19,16 @@ public class IEnumUtils {
 	 *            值
 	 * @return 返回值对应的枚举值。
 	 */
-	@SuppressWarnings("unchecked")
 	public static <T extends IEnum> T getIEnumByValue(Class<T> enumClass,
 			String value) {
-		try {
-			Method method = enumClass.getMethod("values");
-			for (T item : (T[]) method.invoke(enumClass)) {
-				if (item.getValue().equals(value)) {
-					return item;
-				}
+		T[] items = enumClass.getEnumConstants();
+		if (items == null) {
+			throw new UncheckedException(enumClass + "不是枚举类。");
+		}
+		for (T item : items) {
+			if (item.getValue().equals(value)) {
+				return item;
 			}
-		} catch (Exception e) {
-			throw new UncheckedException("获取枚举值时发生异常。", e);
 		}
 		return null;
 	}
@@ -48,18 +44,16 @@ public class IEnumUtils {
 	 *            文本
 	 * @return 返回文本对应的枚举值。
 	 */
-	@SuppressWarnings("unchecked")
 	public static <T extends IEnum> T getIEnumByText(Class<T> enumClass,
 			String text) {
-		try {
-			Method method = enumClass.getMethod("values");
-			for (T item : (T[]) method.invoke(enumClass)) {
-				if (item.getText().equals(text)) {
-					return item;
-				}
+		T[] items = enumClass.getEnumConstants();
+		if (items == null) {
+			throw new UncheckedException(enumClass + "不是枚举类。");
+		}
+		for (T item : items) {
+			if (item.getText().equals(text)) {
+				return item;
 			}
-		} catch (Exception e) {
-			throw new UncheckedException("获取枚举值时发生异常。", e);
 		}
 		return null;
 	}
@@ -6,8 +6,6 @@ import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
-import coo.core.model.UuidEntity;
-
 /**
  * Spring工具类。
  */
@@ -34,16 +32,15 @@ public class SpringUtils implements ApplicationContextAware {
 	}
 
 	/**
-	 * 获取UuidEntity对象。
+	 * 获取UuidEntity（以及UlidEntity、BinaryUlidEntity）对象。
 	 * 
 	 * @param entityClass
 	 *            实体类
 	 * @param id
 	 *            实体ID
-	 * @return 返回对应的UuidEntity对象。
+	 * @return 返回对应的实体对象。
 	 */
-	public static Object getUuidEntityObject(
-			Class<? extends UuidEntity> entityClass, String id) {
+	public static Object getUuidEntityObject(Class<?> entityClass, String id) {
 		SessionFactory sessionFactory = getBean("sessionFactory");
 		return sessionFactory.getCurrentSession().get(entityClass, id);
 	}
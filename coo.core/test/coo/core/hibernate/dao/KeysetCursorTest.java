@@ -0,0 +1,20 @@
+package coo.core.hibernate.dao;
+
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class KeysetCursorTest {
+	@Test
+	public void testEncodeAndDecode() {
+		Date createDate = new Date();
+		String cursor = new KeysetCursor(true, createDate, "a,b=c/中文", 10,
+				20L).encode();
+		KeysetCursor keysetCursor = KeysetCursor.decode(cursor);
+		Assert.assertTrue(keysetCursor.getBackward());
+		Assert.assertArrayEquals(new Object[] { createDate, "a,b=c/中文", 10,
+				20L }, keysetCursor.getValues());
+		Assert.assertNull(KeysetCursor.decode(""));
+	}
+}
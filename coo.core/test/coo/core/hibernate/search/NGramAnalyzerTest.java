@@ -0,0 +1,54 @@
+package coo.core.hibernate.search;
+
+import java.io.StringReader;
+
+import org.apache.lucene.analysis.WhitespaceAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NGramAnalyzerTest {
+	@Test
+	public void testQuery() throws Exception {
+		RAMDirectory directory = new RAMDirectory();
+		IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(
+				Version.LUCENE_36, new WhitespaceAnalyzer(Version.LUCENE_36)));
+		NGramAnalyzer analyzer = new NGramAnalyzer();
+		for (String username : new String[] { "admin", "Administrator",
+				"zhangsan", "lisan", "a.b-c" }) {
+			Document document = new Document();
+			document.add(new Field("username_ngram", analyzer.tokenStream(
+					"username", new StringReader(username))));
+			writer.addDocument(document);
+		}
+		writer.close();
+
+		IndexReader reader = IndexReader.open(directory);
+		IndexSearcher searcher = new IndexSearcher(reader);
+		Assert.assertEquals(2, count(searcher, "adm"));
+		Assert.assertEquals(2, count(searcher, "ADMIN"));
+		Assert.assertEquals(1, count(searcher, "ministrator"));
+		Assert.assertEquals(2, count(searcher, "san"));
+		Assert.assertEquals(1, count(searcher, "gsan"));
+		Assert.assertEquals(0, count(searcher, "sanz"));
+		Assert.assertEquals(0, count(searcher, "admix"));
+		Assert.assertEquals(1, count(searcher, "b-c"));
+		Assert.assertEquals(1, count(searcher, "a.b-c"));
+		Assert.assertEquals(4, count(searcher, "n"));
+		searcher.close();
+		reader.close();
+	}
+
+	private int count(IndexSearcher searcher, String keyword)
+			throws Exception {
+		return searcher.search(
+				NGramAnalyzer.createQuery("username_ngram", keyword), 10).totalHits;
+	}
+}
@@ -0,0 +1,105 @@
+package coo.core.hibernate.search;
+
+import java.io.File;
+import java.io.StringReader;
+import java.util.Random;
+
+import org.apache.lucene.analysis.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+import org.junit.Test;
+
+/**
+ * N-Gram子串查询与前置通配符查询的基准测试，在100万文档的索引上对比两种查询的耗时。<br/>
+ * 默认不随构建执行，可通过mvn test -Dtest=NGramSearchBenchmark手动运行。
+ */
+public class NGramSearchBenchmark {
+	private static final int DOCS = 1000000;
+	private static final int ROUNDS = 20;
+	private static final String[] KEYWORDS = new String[] { "ab", "x7q",
+			"user12", "k3m9", "zz" };
+
+	@Test
+	public void test() throws Exception {
+		File dir = new File(System.getProperty("java.io.tmpdir"),
+				"coo-ngram-benchmark");
+		FSDirectory directory = FSDirectory.open(dir);
+		IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_36,
+				new KeywordAnalyzer());
+		config.setOpenMode(OpenMode.CREATE);
+		config.setRAMBufferSizeMB(256);
+		IndexWriter writer = new IndexWriter(directory, config);
+		NGramAnalyzer analyzer = new NGramAnalyzer();
+		Random random = new Random(0);
+		Long startTime = System.currentTimeMillis();
+		for (int i = 0; i < DOCS; i++) {
+			String username = randomName(random) + i;
+			Document document = new Document();
+			document.add(new Field("username", username, Store.NO,
+					Index.NOT_ANALYZED_NO_NORMS));
+			Field ngramField = new Field("username"
+					+ NGramBridge.FIELD_SUFFIX, analyzer.tokenStream(
+					"username", new StringReader(username)));
+			ngramField.setOmitNorms(true);
+			document.add(ngramField);
+			writer.addDocument(document);
+		}
+		writer.forceMerge(1);
+		writer.close();
+		System.out.println("索引" + DOCS + "条文档，耗时"
+				+ (System.currentTimeMillis() - startTime) + "毫秒。");
+
+		IndexReader reader = IndexReader.open(directory);
+		IndexSearcher searcher = new IndexSearcher(reader);
+		for (String keyword : KEYWORDS) {
+			Query wildcardQuery = new WildcardQuery(new Term("username", "*"
+					+ keyword + "*"));
+			Query ngramQuery = NGramAnalyzer.createQuery("username"
+					+ NGramBridge.FIELD_SUFFIX, keyword);
+			int wildcardHits = search(searcher, wildcardQuery);
+			int ngramHits = search(searcher, ngramQuery);
+			Long wildcardTime = time(searcher, wildcardQuery);
+			Long ngramTime = time(searcher, ngramQuery);
+			System.out.println("关键字[" + keyword + "]：通配符查询命中" + wildcardHits
+					+ "条，平均" + wildcardTime + "微秒；N-Gram查询命中" + ngramHits
+					+ "条，平均" + ngramTime + "微秒。");
+		}
+		searcher.close();
+		reader.close();
+		directory.close();
+	}
+
+	private String randomName(Random random) {
+		String chars = "abcdefghijklmnopqrstuvwxyz0123456789";
+		StringBuilder builder = new StringBuilder();
+		int length = 4 + random.nextInt(6);
+		for (int i = 0; i < length; i++) {
+			builder.append(chars.charAt(random.nextInt(chars.length())));
+		}
+		return builder.toString();
+	}
+
+	private int search(IndexSearcher searcher, Query query) throws Exception {
+		return searcher.search(query, 20).totalHits;
+	}
+
+	private Long time(IndexSearcher searcher, Query query) throws Exception {
+		Long startTime = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			search(searcher, query);
+		}
+		return (System.nanoTime() - startTime) / ROUNDS / 1000;
+	}
+}
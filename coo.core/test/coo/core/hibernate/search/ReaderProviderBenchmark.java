@@ -0,0 +1,254 @@
+package coo.core.hibernate.search;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.util.Version;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.indexes.impl.SharingBufferReaderProvider;
+import org.hibernate.search.indexes.spi.DirectoryBasedReaderProvider;
+import org.hibernate.search.spi.BuildContext;
+import org.hibernate.search.store.DirectoryProvider;
+import org.junit.Test;
+
+/**
+ * 全文索引目录和Reader策略的并发搜索基准测试。<br/>
+ * 模拟searchUser（按姓名和用户名前缀搜索用户）和searchLog（按关键字搜索日志并按时间倒序）在多线程并发搜索、同时不断写入日志的负载下，
+ * 以FSDirectoryProvider的默认配置（FSDirectory.open按平台选择目录实现）+shared为基准，
+ * 对比NIOFSDirectory+shared、MMapDirectory+shared、FSDirectory.open+RefreshingReaderProvider的搜索延迟。<br/>
+ * 默认不随构建执行，可通过mvn test -Dtest=ReaderProviderBenchmark手动运行。
+ */
+public class ReaderProviderBenchmark {
+	private static final int USERS = 200000;
+	private static final int LOGS = 500000;
+	private static final int THREADS = 8;
+	private static final long DURATION = 10000;
+	private static final long COMMIT_INTERVAL = 50;
+	private static final long REFRESH_INTERVAL = 1000;
+	private static final String[] WORDS = new String[] { "login", "logout",
+			"create", "update", "delete", "role", "user", "organ", "password",
+			"lock" };
+
+	@Test
+	public void test() throws Exception {
+		File dir = new File(System.getProperty("java.io.tmpdir"),
+				"coo-reader-benchmark");
+		Directory directory = new NIOFSDirectory(dir);
+		createIndex(directory);
+		directory.close();
+
+		// 预热JIT和操作系统页缓存，结果不参与对比
+		run("预热", FSDirectory.open(dir), new SharingBufferReaderProvider(),
+				new Properties());
+		Directory defaultDirectory = FSDirectory.open(dir);
+		run("FSDirectory.open(" + defaultDirectory.getClass().getSimpleName()
+				+ ") + shared", defaultDirectory,
+				new SharingBufferReaderProvider(), new Properties());
+		run("NIOFSDirectory + shared", new NIOFSDirectory(dir),
+				new SharingBufferReaderProvider(), new Properties());
+		run("MMapDirectory + shared", new MMapDirectory(dir),
+				new SharingBufferReaderProvider(), new Properties());
+		Properties props = new Properties();
+		props.setProperty("refresh_interval", String.valueOf(REFRESH_INTERVAL));
+		run("FSDirectory.open + RefreshingReaderProvider(" + REFRESH_INTERVAL
+				+ "ms)", FSDirectory.open(dir), new RefreshingReaderProvider(),
+				props);
+	}
+
+	private void createIndex(Directory directory) throws Exception {
+		IndexWriterConfig config = new IndexWriterConfig(Version.LUCENE_36,
+				new StandardAnalyzer(Version.LUCENE_36));
+		config.setOpenMode(OpenMode.CREATE);
+		config.setRAMBufferSizeMB(256);
+		IndexWriter writer = new IndexWriter(directory, config);
+		Random random = new Random(0);
+		Long startTime = System.currentTimeMillis();
+		for (int i = 0; i < USERS; i++) {
+			Document document = new Document();
+			document.add(new Field("username", "user" + i, Store.YES,
+					Index.NOT_ANALYZED_NO_NORMS));
+			document.add(new Field("name", randomWord(random) + " "
+					+ randomWord(random), Store.YES, Index.ANALYZED));
+			writer.addDocument(document);
+		}
+		for (int i = 0; i < LOGS; i++) {
+			writer.addDocument(createLog(random, i));
+		}
+		writer.forceMerge(1);
+		writer.close();
+		System.out.println("索引" + USERS + "条用户、" + LOGS + "条日志，耗时"
+				+ (System.currentTimeMillis() - startTime) + "毫秒。");
+	}
+
+	private void run(String name, final Directory directory,
+			final DirectoryBasedReaderProvider readerProvider, Properties props)
+			throws Exception {
+		final IndexWriter writer = new IndexWriter(directory,
+				new IndexWriterConfig(Version.LUCENE_36, new StandardAnalyzer(
+						Version.LUCENE_36)));
+		readerProvider.initialize(createIndexManager(directory), props);
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final List<Long> userTimes = Collections
+				.synchronizedList(new ArrayList<Long>());
+		final List<Long> logTimes = Collections
+				.synchronizedList(new ArrayList<Long>());
+		final CountDownLatch finished = new CountDownLatch(THREADS);
+		for (int i = 0; i < THREADS; i++) {
+			final Random random = new Random(i);
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						while (running.get()) {
+							userTimes.add(search(readerProvider,
+									createUserQuery(random), null));
+							logTimes.add(search(readerProvider,
+									createLogQuery(random), new Sort(
+											new SortField("createDate",
+													SortField.STRING, true))));
+						}
+					} catch (Exception e) {
+						e.printStackTrace();
+					} finally {
+						finished.countDown();
+					}
+				}
+			}).start();
+		}
+		Random random = new Random(THREADS);
+		long endTime = System.currentTimeMillis() + DURATION;
+		int commits = 0;
+		while (System.currentTimeMillis() < endTime) {
+			writer.addDocument(createLog(random, LOGS + commits));
+			writer.commit();
+			commits++;
+			Thread.sleep(COMMIT_INTERVAL);
+		}
+		running.set(false);
+		finished.await();
+		readerProvider.stop();
+		writer.close();
+		directory.close();
+		System.out.println(name + "：提交" + commits + "次；searchUser "
+				+ report(userTimes) + "；searchLog " + report(logTimes) + "。");
+	}
+
+	private Long search(DirectoryBasedReaderProvider readerProvider,
+			Query query, Sort sort) throws Exception {
+		Long startTime = System.nanoTime();
+		IndexReader reader = readerProvider.openIndexReader();
+		try {
+			IndexSearcher searcher = new IndexSearcher(reader);
+			if (sort == null) {
+				searcher.search(query, 20);
+			} else {
+				searcher.search(query, 20, sort);
+			}
+		} finally {
+			readerProvider.closeIndexReader(reader);
+		}
+		return (System.nanoTime() - startTime) / 1000;
+	}
+
+	private Query createUserQuery(Random random) {
+		BooleanQuery query = new BooleanQuery();
+		query.add(new TermQuery(new Term("name", randomWord(random))),
+				Occur.SHOULD);
+		query.add(new PrefixQuery(new Term("username", "user"
+				+ random.nextInt(1000))), Occur.SHOULD);
+		return query;
+	}
+
+	private Query createLogQuery(Random random) {
+		return new TermQuery(new Term("message", randomWord(random)));
+	}
+
+	private Document createLog(Random random, int i) {
+		Document document = new Document();
+		document.add(new Field("creator", "user" + random.nextInt(USERS),
+				Store.YES, Index.NOT_ANALYZED_NO_NORMS));
+		document.add(new Field("createDate", String.format("%014d",
+				20140101000000L + i), Store.YES, Index.NOT_ANALYZED_NO_NORMS));
+		document.add(new Field("message", randomWord(random) + " "
+				+ randomWord(random) + " " + randomWord(random), Store.YES,
+				Index.ANALYZED));
+		return document;
+	}
+
+	private String randomWord(Random random) {
+		return WORDS[random.nextInt(WORDS.length)];
+	}
+
+	private String report(List<Long> times) {
+		List<Long> sorted = new ArrayList<Long>(times);
+		Collections.sort(sorted);
+		long total = 0;
+		for (Long time : sorted) {
+			total += time;
+		}
+		return sorted.size() + "次，平均" + total / sorted.size() + "微秒，P99 "
+				+ sorted.get(sorted.size() * 99 / 100) + "微秒";
+	}
+
+	private DirectoryBasedIndexManager createIndexManager(
+			final Directory directory) {
+		return new DirectoryBasedIndexManager() {
+			@Override
+			public String getIndexName() {
+				return "benchmark";
+			}
+
+			@SuppressWarnings("rawtypes")
+			@Override
+			public DirectoryProvider getDirectoryProvider() {
+				return new DirectoryProvider<Directory>() {
+					@Override
+					public void initialize(String directoryProviderName,
+							Properties properties, BuildContext context) {
+					}
+
+					@Override
+					public void start(DirectoryBasedIndexManager indexManager) {
+					}
+
+					@Override
+					public void stop() {
+					}
+
+					@Override
+					public Directory getDirectory() {
+						return directory;
+					}
+				};
+			}
+		};
+	}
+}
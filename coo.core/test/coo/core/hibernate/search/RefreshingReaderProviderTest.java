@@ -0,0 +1,114 @@
+package coo.core.hibernate.search;
+
+import java.util.Properties;
+
+import org.apache.lucene.analysis.WhitespaceAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.hibernate.search.SearchException;
+import org.hibernate.search.indexes.impl.DirectoryBasedIndexManager;
+import org.hibernate.search.spi.BuildContext;
+import org.hibernate.search.store.DirectoryProvider;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RefreshingReaderProviderTest {
+	@Test
+	public void testRefresh() throws Exception {
+		RAMDirectory directory = new RAMDirectory();
+		IndexWriter writer = createWriter(directory);
+		RefreshingReaderProvider readerProvider = createReaderProvider(directory);
+
+		IndexReader reader = readerProvider.openIndexReader();
+		Assert.assertEquals(1, reader.numDocs());
+		readerProvider.closeIndexReader(reader);
+
+		addDocument(writer, "lisi");
+		reader = readerProvider.openIndexReader();
+		Assert.assertEquals(2, reader.numDocs());
+		readerProvider.closeIndexReader(reader);
+
+		readerProvider.stop();
+		writer.close();
+	}
+
+	@Test(timeout = 5000)
+	public void testStop() throws Exception {
+		RAMDirectory directory = new RAMDirectory();
+		IndexWriter writer = createWriter(directory);
+		RefreshingReaderProvider readerProvider = createReaderProvider(directory);
+
+		IndexReader reader = readerProvider.openIndexReader();
+		readerProvider.stop();
+		Assert.assertEquals(1, reader.numDocs());
+		readerProvider.closeIndexReader(reader);
+		try {
+			readerProvider.openIndexReader();
+			Assert.fail();
+		} catch (SearchException e) {
+		}
+		writer.close();
+	}
+
+	private IndexWriter createWriter(Directory directory) throws Exception {
+		IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(
+				Version.LUCENE_36, new WhitespaceAnalyzer(Version.LUCENE_36)));
+		addDocument(writer, "zhangsan");
+		return writer;
+	}
+
+	private void addDocument(IndexWriter writer, String username)
+			throws Exception {
+		Document document = new Document();
+		document.add(new Field("username", username, Store.YES,
+				Index.NOT_ANALYZED));
+		writer.addDocument(document);
+		writer.commit();
+	}
+
+	private RefreshingReaderProvider createReaderProvider(
+			final Directory directory) {
+		Properties props = new Properties();
+		props.setProperty("refresh_interval", "0");
+		RefreshingReaderProvider readerProvider = new RefreshingReaderProvider();
+		readerProvider.initialize(new DirectoryBasedIndexManager() {
+			@Override
+			public String getIndexName() {
+				return "test";
+			}
+
+			@SuppressWarnings("rawtypes")
+			@Override
+			public DirectoryProvider getDirectoryProvider() {
+				return new DirectoryProvider<Directory>() {
+					@Override
+					public void initialize(String directoryProviderName,
+							Properties properties, BuildContext context) {
+					}
+
+					@Override
+					public void start(DirectoryBasedIndexManager indexManager) {
+					}
+
+					@Override
+					public void stop() {
+					}
+
+					@Override
+					public Directory getDirectory() {
+						return directory;
+					}
+				};
+			}
+		}, props);
+		return readerProvider;
+	}
+}
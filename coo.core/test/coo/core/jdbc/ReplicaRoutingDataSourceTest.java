@@ -0,0 +1,117 @@
+package coo.core.jdbc;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ReplicaRoutingDataSourceTest {
+	private DataSource primary;
+	private ReplicaRoutingDataSource routingDataSource;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readTemplate;
+	private TransactionTemplate writeTemplate;
+
+	@Before
+	public void setUp() {
+		primary = createDataSource("primary");
+		DataSource replica = createDataSource("replica");
+		replica.close();
+
+		routingDataSource = new ReplicaRoutingDataSource();
+		routingDataSource.setPrimaryDataSource(primary);
+		routingDataSource.setReplicaUrls(replica.getUrl());
+		routingDataSource.afterPropertiesSet();
+
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+				routingDataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(
+				dataSource);
+		readTemplate = new TransactionTemplate(transactionManager);
+		readTemplate.setReadOnly(true);
+		writeTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@After
+	public void tearDown() {
+		routingDataSource.destroy();
+		primary.close();
+	}
+
+	@Test
+	public void testRouting() {
+		Assert.assertEquals("replica", queryNode(readTemplate));
+		Assert.assertEquals("primary", queryNode(writeTemplate));
+		Assert.assertEquals("primary",
+				jdbcTemplate.queryForObject("select NAME from NODE",
+						String.class));
+	}
+
+	@Test
+	public void testFallbackToPrimary() {
+		routingDataSource.setLagQuery("select 60");
+		routingDataSource.checkReplicas();
+		Assert.assertTrue(routingDataSource.getAvailableReplicas().isEmpty());
+		Assert.assertEquals("primary", queryNode(readTemplate));
+
+		routingDataSource.setLagQuery("select 1");
+		routingDataSource.checkReplicas();
+		Assert.assertEquals("replica", queryNode(readTemplate));
+	}
+
+	@Test
+	public void testRoutedToReplica() {
+		Assert.assertTrue(readTemplate
+				.execute(new TransactionCallback<Boolean>() {
+					@Override
+					public Boolean doInTransaction(TransactionStatus status) {
+						Assert.assertFalse(ReplicaRoutingDataSource
+								.isRoutedToReplica());
+						jdbcTemplate.queryForObject("select NAME from NODE",
+								String.class);
+						return ReplicaRoutingDataSource.isRoutedToReplica();
+					}
+				}));
+		Assert.assertFalse(ReplicaRoutingDataSource.isRoutedToReplica());
+		Assert.assertFalse(writeTemplate
+				.execute(new TransactionCallback<Boolean>() {
+					@Override
+					public Boolean doInTransaction(TransactionStatus status) {
+						jdbcTemplate.queryForObject("select NAME from NODE",
+								String.class);
+						return ReplicaRoutingDataSource.isRoutedToReplica();
+					}
+				}));
+	}
+
+	private DataSource createDataSource(String name) {
+		DataSource dataSource = new DataSource();
+		dataSource.setDriverClassName("org.h2.Driver");
+		dataSource.setUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+		dataSource.setUsername("sa");
+		dataSource.setPassword("");
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		template.execute("create table if not exists NODE(NAME varchar(20))");
+		template.execute("delete from NODE");
+		template.execute("insert into NODE values('" + name + "')");
+		return dataSource;
+	}
+
+	private String queryNode(TransactionTemplate template) {
+		return template.execute(new TransactionCallback<String>() {
+			@Override
+			public String doInTransaction(TransactionStatus status) {
+				return jdbcTemplate.queryForObject("select NAME from NODE",
+						String.class);
+			}
+		});
+	}
+}
@@ -0,0 +1,73 @@
+package coo.core.model;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * 主键生成器插入吞吐量基准测试，对比随机UUID字符串、ULID字符串和ULID二进制主键。<br/>
+ * 使用H2文件数据库，默认不随构建执行，可通过mvn test -Dtest=IdGeneratorBenchmark手动运行。
+ */
+public class IdGeneratorBenchmark {
+	private static final int ROWS = 200000;
+	private static final int BATCH_SIZE = 1000;
+
+	@Test
+	public void test() throws Exception {
+		File dir = new File(System.getProperty("java.io.tmpdir"),
+				"coo-id-benchmark");
+		Class.forName("org.h2.Driver");
+		Connection conn = DriverManager.getConnection("jdbc:h2:"
+				+ dir.getAbsolutePath() + "/db;CACHE_SIZE=8192", "sa", "");
+		try {
+			Statement stmt = conn.createStatement();
+			stmt.execute("drop all objects");
+			stmt.execute("create table UUID_ID(ID char(36) primary key, NAME varchar(50))");
+			stmt.execute("create table ULID_ID(ID char(26) primary key, NAME varchar(50))");
+			stmt.execute("create table ULID_BINARY_ID(ID binary(16) primary key, NAME varchar(50))");
+			stmt.close();
+			conn.setAutoCommit(false);
+			for (int round = 0; round < 2; round++) {
+				insert(conn, "UUID_ID", 0);
+				insert(conn, "ULID_ID", 1);
+				insert(conn, "ULID_BINARY_ID", 2);
+			}
+		} finally {
+			conn.close();
+		}
+	}
+
+	private void insert(Connection conn, String table, int idType)
+			throws Exception {
+		PreparedStatement ps = conn.prepareStatement("insert into " + table
+				+ " values(?, ?)");
+		Long startTime = System.currentTimeMillis();
+		for (int i = 1; i <= ROWS; i++) {
+			switch (idType) {
+			case 0:
+				ps.setString(1, UUID.randomUUID().toString());
+				break;
+			case 1:
+				ps.setString(1, UlidGenerator.generate());
+				break;
+			default:
+				ps.setBytes(1, UlidGenerator.toBytes(UlidGenerator.generate()));
+			}
+			ps.setString(2, "name" + i);
+			ps.addBatch();
+			if (i % BATCH_SIZE == 0) {
+				ps.executeBatch();
+				conn.commit();
+			}
+		}
+		ps.close();
+		Long time = System.currentTimeMillis() - startTime;
+		System.out.println(table + ": 插入" + ROWS + "条记录，耗时" + time + "毫秒，"
+				+ ROWS * 1000L / Math.max(time, 1) + "条/秒。");
+	}
+}
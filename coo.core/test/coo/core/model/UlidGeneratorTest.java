@@ -0,0 +1,66 @@
+package coo.core.model;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import coo.base.exception.UncheckedException;
+
+public class UlidGeneratorTest {
+	@Test
+	public void testGenerate() {
+		Long startTime = System.currentTimeMillis();
+		String previous = UlidGenerator.generate();
+		Assert.assertEquals(26, previous.length());
+		Assert.assertTrue(UlidGenerator.getTimestamp(previous) >= startTime);
+		Set<String> ids = new HashSet<String>();
+		for (int i = 0; i < 10000; i++) {
+			String id = UlidGenerator.generate();
+			Assert.assertTrue(id.compareTo(previous) > 0);
+			Assert.assertTrue(ids.add(id));
+			previous = id;
+		}
+	}
+
+	@Test
+	public void testBytes() {
+		String previous = null;
+		byte[] previousBytes = null;
+		for (int i = 0; i < 100; i++) {
+			String id = UlidGenerator.generate();
+			byte[] bytes = UlidGenerator.toBytes(id);
+			Assert.assertEquals(16, bytes.length);
+			Assert.assertEquals(id, UlidGenerator.fromBytes(bytes));
+			if (previous != null) {
+				Assert.assertTrue(compare(bytes, previousBytes) > 0);
+			}
+			previous = id;
+			previousBytes = bytes;
+		}
+		Assert.assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ",
+				UlidGenerator.fromBytes(UlidGenerator
+						.toBytes("7ZZZZZZZZZZZZZZZZZZZZZZZZZ")));
+		Assert.assertEquals("01ARZ3NDEKTSV4RRFFQ69G5FAV",
+				UlidGenerator.fromBytes(UlidGenerator
+						.toBytes("01arz3ndektsv4rrffq69g5fav")));
+		Assert.assertEquals(1469918176385L,
+				(long) UlidGenerator.getTimestamp("01ARYZ6S41TSV4RRFFQ69G5FAV"));
+	}
+
+	@Test(expected = UncheckedException.class)
+	public void testInvalid() {
+		UlidGenerator.toBytes("8ZZZZZZZZZZZZZZZZZZZZZZZZZ");
+	}
+
+	private int compare(byte[] left, byte[] right) {
+		for (int i = 0; i < left.length; i++) {
+			int diff = (left[i] & 0xFF) - (right[i] & 0xFF);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return 0;
+	}
+}
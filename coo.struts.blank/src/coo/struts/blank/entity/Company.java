@@ -17,6 +17,7 @@ import org.hibernate.annotations.Type;
 import org.hibernate.search.annotations.Field;
 import org.hibernate.validator.constraints.NotBlank;
 
+import coo.core.hibernate.search.Suggestible;
 import coo.core.model.UuidEntity;
 import coo.struts.blank.model.CompanyExtendInfo;
 
@@ -29,6 +30,7 @@ public class Company extends UuidEntity {
 	/** 名称 */
 	@NotBlank
 	@Field
+	@Suggestible
 	private String name;
 	/** 成立时间 */
 	@NotNull
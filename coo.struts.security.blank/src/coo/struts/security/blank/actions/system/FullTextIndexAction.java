@@ -8,6 +8,7 @@ import javax.annotation.Resource;
 import org.apache.struts2.convention.annotation.Action;
 
 import coo.core.hibernate.search.FullTextIndexer;
+import coo.core.hibernate.search.IndexingProgress;
 import coo.core.security.annotations.Auth;
 import coo.core.security.permission.AdminPermission;
 import coo.struts.actions.GenericAction;
@@ -21,6 +22,8 @@ public class FullTextIndexAction extends GenericAction {
 	@Resource
 	private FullTextIndexer fullTextIndexer;
 	private List<Class<?>> indexedEntityClasses = new ArrayList<Class<?>>();
+	private List<IndexingProgress> progresses = new ArrayList<IndexingProgress>();
+	private Boolean running = false;
 
 	/**
 	 * 查看全文索引选择页面。
@@ -34,16 +37,65 @@ public class FullTextIndexAction extends GenericAction {
 	}
 
 	/**
-	 * 重建选中的全文索引。
+	 * 异步重建选中的全文索引，重建进度通过全文索引重建进度页面查看。
 	 * 
 	 * @return 返回操作成功信息。
 	 */
 	@Action("full-text-index-build")
 	public String build() {
-		fullTextIndexer.startAndWait(indexedEntityClasses
+		fullTextIndexer.start(indexedEntityClasses.toArray(new Class<?>[] {}));
+		return AjaxResultUtils.refresh(
+				getMessage("full.text.index.build.start"), "entity-list");
+	}
+
+	/**
+	 * 异步增量重建选中的全文索引，只重建上次重建后修改过的实体。
+	 * 
+	 * @return 返回操作成功信息。
+	 */
+	@Action("full-text-index-build-delta")
+	public String buildDelta() {
+		fullTextIndexer.startDelta(indexedEntityClasses
+				.toArray(new Class<?>[] {}));
+		return AjaxResultUtils.refresh(
+				getMessage("full.text.index.build.delta.start"), "entity-list");
+	}
+
+	/**
+	 * 合并选中的按月分片全文索引中当前月份以外的历史分片。
+	 * 
+	 * @return 返回操作成功信息。
+	 */
+	@Action("full-text-index-optimize")
+	public String optimize() {
+		fullTextIndexer.optimizeHistoryShards(indexedEntityClasses
 				.toArray(new Class<?>[] {}));
 		return AjaxResultUtils.refresh(
-				getMessage("full.text.index.build.success"), "entity-list");
+				getMessage("full.text.index.optimize.start"), "entity-list");
+	}
+
+	/**
+	 * 查看全文索引重建进度页面。
+	 * 
+	 * @return 返回全文索引重建进度页面。
+	 */
+	@Action("full-text-index-progress")
+	public String progress() {
+		progresses = fullTextIndexer.getProgresses();
+		running = fullTextIndexer.isRunning();
+		return SUCCESS;
+	}
+
+	/**
+	 * 取消正在进行的全文索引重建。
+	 * 
+	 * @return 返回操作成功信息。
+	 */
+	@Action("full-text-index-cancel")
+	public String cancel() {
+		fullTextIndexer.cancel();
+		return AjaxResultUtils.refresh(
+				getMessage("full.text.index.cancel.success"), "entity-list");
 	}
 
 	public List<Class<?>> getIndexedEntityClasses() {
@@ -53,4 +105,12 @@ public class FullTextIndexAction extends GenericAction {
 	public void setIndexedEntityClasses(List<Class<?>> indexedEntityClasses) {
 		this.indexedEntityClasses = indexedEntityClasses;
 	}
+
+	public List<IndexingProgress> getProgresses() {
+		return progresses;
+	}
+
+	public Boolean getRunning() {
+		return running;
+	}
 }
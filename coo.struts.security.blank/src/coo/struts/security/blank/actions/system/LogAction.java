@@ -1,12 +1,14 @@
 package coo.struts.security.blank.actions.system;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import javax.annotation.Resource;
 
 import org.apache.struts2.ServletActionContext;
 import org.apache.struts2.convention.annotation.Action;
+import org.joda.time.DateTime;
 
 import com.opensymphony.xwork2.ModelDriven;
 
@@ -28,17 +30,23 @@ public class LogAction extends GenericAction implements
 	@Resource
 	private BnLogger bnLogger;
 	private SearchModel searchModel = new SearchModel();
+	/** 搜索最近几个月的日志，小于等于0时搜索全部日志 */
+	private Integer months = 3;
 	private Page<BnLog> pageModel;
 	private List<LogData> datas = new ArrayList<LogData>();
 
 	/**
-	 * 查看日志列表。
+	 * 查看日志列表。只搜索最近几个月的日志，日志索引按月分片时只打开这几个月所在的分片。
 	 * 
 	 * @return 返回查看日志列表页面。
 	 */
 	@Action("log-list")
 	public String list() {
-		pageModel = bnLogger.searchLog(searchModel);
+		Date startDate = null;
+		if (months > 0) {
+			startDate = new DateTime().minusMonths(months).toDate();
+		}
+		pageModel = bnLogger.searchLog(searchModel, startDate, null);
 		return SUCCESS;
 	}
 
@@ -63,6 +71,14 @@ public class LogAction extends GenericAction implements
 		this.pageModel = pageModel;
 	}
 
+	public Integer getMonths() {
+		return months;
+	}
+
+	public void setMonths(Integer months) {
+		this.months = months;
+	}
+
 	public List<LogData> getDatas() {
 		return datas;
 	}
@@ -3,14 +3,33 @@
     	<div class="panelBar">
             <ul class="toolBar">
                 <li>
-                    <a href="javascript:void(0);" onclick="$('#fullTextIndexForm').submit()">
+                    <a href="javascript:void(0);" onclick="$('#fullTextIndexForm').attr('action', '<@s.url action="full-text-index-build" />').submit()">
 						<span class="a34">重建全文索引</span>
 					</a>
                 </li>
+                <li>
+                    <a href="javascript:void(0);" onclick="$('#fullTextIndexForm').attr('action', '<@s.url action="full-text-index-build-delta" />').submit()">
+						<span class="a34">增量重建</span>
+					</a>
+                </li>
+                <li>
+                    <a href="javascript:void(0);" onclick="$('#fullTextIndexForm').attr('action', '<@s.url action="full-text-index-optimize" />').submit()">
+						<span class="a34">合并历史分片</span>
+					</a>
+                </li>
+                <li>
+                    <a href="<@s.url action="full-text-index-cancel" />" target="ajaxTodo" title="确定要取消正在进行的全文索引重建吗？">
+						<span class="a36">取消重建</span>
+					</a>
+                </li>
             </ul>
         </div>
+        <div id="fullTextIndexProgress" style="height:150px;overflow:auto;"></div>
+        <script type="text/javascript">
+            $("#fullTextIndexProgress").loadUrl("<@s.url action="full-text-index-progress" />");
+        </script>
         <@s.form id="fullTextIndexForm" action="full-text-index-build" cssClass="pageForm" onsubmit="return validateCallback(this,navTabAjaxDone)">
-        <table class="table" width="100%" layoutH="75">
+        <table class="table" width="100%" layoutH="225">
             <thead>
                 <tr>
                     <th width="80" align="center">
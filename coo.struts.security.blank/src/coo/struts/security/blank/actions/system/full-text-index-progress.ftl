@@ -0,0 +1,34 @@
+<table class="list" width="100%">
+    <thead>
+        <tr>
+            <th>实体类名</th>
+            <th width="80" align="center">状态</th>
+            <th width="120" align="center">进度</th>
+            <th width="100" align="center">速度（条/秒）</th>
+            <th width="100" align="center">预计剩余（秒）</th>
+            <th width="100" align="center">耗时（秒）</th>
+        </tr>
+    </thead>
+    <tbody>
+        <#list progresses as progress>
+        <tr>
+            <td>${progress.entityClass.name}</td>
+            <td align="center">${progress.status.text}</td>
+            <td align="center">${progress.documentCount}/${progress.totalCount}（${progress.percent}%）</td>
+            <td align="center">${progress.throughput?string("0")}</td>
+            <td align="center">${progress.eta!"-"}</td>
+            <td align="center">${(progress.elapsedTime / 1000)?string("0")}</td>
+        </tr>
+        </#list>
+    </tbody>
+</table>
+<#if running>
+<script type="text/javascript">
+setTimeout(function() {
+    var $progress = $("#fullTextIndexProgress");
+    if ($progress.length > 0) {
+        $progress.loadUrl("<@s.url action="full-text-index-progress" />");
+    }
+}, 2000);
+</script>
+</#if>
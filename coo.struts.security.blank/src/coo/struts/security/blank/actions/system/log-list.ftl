@@ -1,6 +1,9 @@
 <div class="page">
     <div class="pageHeader">
-        <@dwz.pagerForm action="log-list" />
+        <@dwz.pagerForm action="log-list">
+            <#assign monthOptions = {"最近1个月":1, "最近3个月":3, "最近6个月":6, "最近1年":12, "全部":0}>
+            <li><@s.select name="months" list=monthOptions listKey="value" listValue="key" cssClass="combox" /></li>
+        </@dwz.pagerForm>
     </div>
     <div class="pageContent">
         <table class="table" width="100%" layoutH="85">
@@ -0,0 +1,57 @@
+package coo.struts.security.actions;
+
+import javax.annotation.Resource;
+
+import com.opensymphony.xwork2.ActionSupport;
+
+import coo.core.hibernate.search.SuggestionService;
+import coo.core.security.annotations.Auth;
+import coo.struts.util.JsonResultUtils;
+
+/**
+ * 输入提示Action，为人员、机构、公司等选择框按输入的前缀返回JSON格式的提示项，需要登录后访问。<br/>
+ * 请求参数：entity为实体类的简单类名（只接受search.suggest.entities中配置的实体类），keyword为输入的前缀，size为最大提示项数（可选，不超过search.suggest.max_size）。
+ */
+@Auth
+public class SuggestAction extends ActionSupport {
+	@Resource
+	private SuggestionService suggestionService;
+	private String entity;
+	private String keyword;
+	private Integer size;
+
+	/**
+	 * 输出输入提示项。
+	 * 
+	 * @return 返回JSON格式的提示项数组，每项包含id、text、field属性。
+	 */
+	@Override
+	public String execute() {
+		return JsonResultUtils.json(suggestionService.suggest(entity, keyword,
+				size));
+	}
+
+	public String getEntity() {
+		return entity;
+	}
+
+	public void setEntity(String entity) {
+		this.entity = entity;
+	}
+
+	public String getKeyword() {
+		return keyword;
+	}
+
+	public void setKeyword(String keyword) {
+		this.keyword = keyword;
+	}
+
+	public Integer getSize() {
+		return size;
+	}
+
+	public void setSize(Integer size) {
+		this.size = size;
+	}
+}
@@ -4,11 +4,11 @@ import java.util.Map;
 
 import org.apache.struts2.util.StrutsTypeConverter;
 
-import coo.core.model.UuidEntity;
+import coo.base.util.BeanUtils;
 import coo.core.util.SpringUtils;
 
 /**
- * UuidEntity业务实体转换器，实现UuidEntity的id与实体对象之间的自动转换。
+ * UuidEntity业务实体转换器，实现UuidEntity（以及UlidEntity、BinaryUlidEntity）的id与实体对象之间的自动转换。
  */
 public class UuidEntityConverter extends StrutsTypeConverter {
 	@SuppressWarnings({ "rawtypes", "unchecked" })
@@ -20,6 +20,6 @@ public class UuidEntityConverter extends StrutsTypeConverter {
 	@SuppressWarnings({ "rawtypes" })
 	@Override
 	public String convertToString(Map context, Object o) {
-		return ((UuidEntity) o).getId();
+		return (String) BeanUtils.getField(o, "id");
 	}
 }
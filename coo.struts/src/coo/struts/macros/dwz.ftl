@@ -73,12 +73,13 @@
     </div>
 </div>
 </#macro>
-<#macro pagerForm action method="post" onsubmit="return navTabSearch(this);">
+<#macro pagerForm action method="post" onsubmit="this.cursor.value='';return navTabSearch(this);">
 <@s.form id="pagerForm" method="${method}" action="${action}" onsubmit="${onsubmit}">
 <@s.hidden name="pageNo" />
 <@s.hidden name="pageSize" />
 <@s.hidden name="orderBy" />
 <@s.hidden name="sort" />
+<@s.hidden name="cursor" />
 <div class="searchBar">
     <div class="subBar">
         <ul>
@@ -104,6 +105,48 @@
 </div>
 <div class="pagination" targetType="navTab" totalCount="${pageModel.count}" numPerPage="${pageModel.size}" pageNumShown="10" currentPage="${pageModel.number}"></div>
 </#macro>
+<#macro keysetPagerNav pageModel onchange="$('#pagerForm :input[name=cursor]', navTab.getCurrentPanel()).val('');navTabPageBreak({numPerPage:this.value});">
+<div class="pages">
+    <span>显示</span>
+	<#assign options = {"20":20, "30":30, "50":50, "80":80, "100":100}>
+    <@s.select name="pageSize" list=options listKey="value" listValue="key" cssClass="combox" onchange="${onchange}" /><span>条</span>
+</div>
+<div class="pagination">
+    <ul>
+        <#if !pageModel.first && pageModel.previousCursor??>
+        <li class="j-prev"><a class="previous" href="javascript:;" onclick="$('#pagerForm :input[name=cursor]', navTab.getCurrentPanel()).val('${pageModel.previousCursor}');navTabPageBreak({});"><span>上一页</span></a></li>
+        <#else>
+        <li class="j-prev disabled"><span class="previous">上一页</span></li>
+        </#if>
+        <#if !pageModel.last && pageModel.nextCursor??>
+        <li class="j-next"><a class="next" href="javascript:;" onclick="$('#pagerForm :input[name=cursor]', navTab.getCurrentPanel()).val('${pageModel.nextCursor}');navTabPageBreak({});"><span>下一页</span></a></li>
+        <#else>
+        <li class="j-next disabled"><span class="next">下一页</span></li>
+        </#if>
+    </ul>
+</div>
+</#macro>
+<#macro slicePagerNav sliceModel onchange="navTabPageBreak({numPerPage:this.value});">
+<div class="pages">
+    <span>显示</span>
+	<#assign options = {"20":20, "30":30, "50":50, "80":80, "100":100}>
+    <@s.select name="pageSize" list=options listKey="value" listValue="key" cssClass="combox" onchange="${onchange}" /><span>条，第${sliceModel.number}页</span>
+</div>
+<div class="pagination">
+    <ul>
+        <#if sliceModel.first>
+        <li class="j-prev disabled"><span class="previous">上一页</span></li>
+        <#else>
+        <li class="j-prev"><a class="previous" href="javascript:;" onclick="navTabPageBreak({pageNum:${sliceModel.previous}});"><span>上一页</span></a></li>
+        </#if>
+        <#if sliceModel.last>
+        <li class="j-next disabled"><span class="next">下一页</span></li>
+        <#else>
+        <li class="j-next"><a class="next" href="javascript:;" onclick="navTabPageBreak({pageNum:${sliceModel.next}});"><span>下一页</span></a></li>
+        </#if>
+    </ul>
+</div>
+</#macro>
 <#macro refresh action params...>
 <@s.form id="pagerForm" method="get" action="${action}">
 <#if params??>
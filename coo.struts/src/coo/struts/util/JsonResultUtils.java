@@ -0,0 +1,38 @@
+package coo.struts.util;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.struts2.ServletActionContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opensymphony.xwork2.Action;
+
+import coo.base.exception.UncheckedException;
+
+/**
+ * 直接输出JSON响应内容的工具类，用于不需要页面模版的轻量AJAX请求。
+ */
+public class JsonResultUtils {
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	/**
+	 * 将对象序列化为JSON输出到响应中。
+	 * 
+	 * @param result
+	 *            待输出的对象
+	 * @return 返回Action.NONE，不再跳转到页面。
+	 */
+	public static String json(Object result) {
+		HttpServletResponse response = ServletActionContext.getResponse();
+		response.setContentType("application/json;charset=UTF-8");
+		response.setHeader("Cache-Control", "no-cache");
+		try {
+			MAPPER.writeValue(response.getOutputStream(), result);
+		} catch (IOException e) {
+			throw new UncheckedException("输出JSON响应内容时发生异常。", e);
+		}
+		return Action.NONE;
+	}
+}